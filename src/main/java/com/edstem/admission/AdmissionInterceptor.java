@@ -0,0 +1,185 @@
+package com.edstem.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Admission control for the task API, applied before a request reaches its handler so that a
+ * rejected request costs no database work:
+ *
+ * <ol>
+ *   <li>the client's budget for the request's {@link TrafficClass} is checked in {@link
+ *       ClientRateLimiter}; an exhausted budget is answered with 429 and a {@code Retry-After};
+ *   <li>the request takes one of {@code app.admission.max-concurrent} slots, and a bulk request
+ *       also one of {@code app.admission.max-concurrent-bulk}; when none is free the request is
+ *       shed at once with 503 rather than queued behind the work that is already saturating the
+ *       connection pool.
+ * </ol>
+ *
+ * <p>Clients are identified by {@link ClientIdentity}. The header it reads must be set by a trusted
+ * gateway; a client that chooses its own identity can spread its requests over many budgets. Slots
+ * are held until the request completes, including the asynchronous part of streaming responses. A
+ * cap of {@code 0} disables that cap.
+ */
+@Component
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMISSION = AdmissionInterceptor.class.getName() + ".admission";
+
+    private final ClientRateLimiter rateLimiter;
+    private final ClientIdentity clientIdentity;
+    private final Semaphore requestSlots;
+    private final Semaphore bulkSlots;
+    private final Map<TrafficClass, Counter> rateLimited = new EnumMap<>(TrafficClass.class);
+    private final Map<TrafficClass, Counter> shed = new EnumMap<>(TrafficClass.class);
+
+    public AdmissionInterceptor(
+            ClientRateLimiter rateLimiter,
+            MeterRegistry meterRegistry,
+            ClientIdentity clientIdentity,
+            @Value("${app.admission.max-concurrent:0}") int maxConcurrent,
+            @Value("${app.admission.max-concurrent-bulk:0}") int maxConcurrentBulk) {
+        this.rateLimiter = rateLimiter;
+        this.clientIdentity = clientIdentity;
+        this.requestSlots = slots(meterRegistry, "all", maxConcurrent);
+        this.bulkSlots = slots(meterRegistry, "bulk", maxConcurrentBulk);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            rateLimited.put(trafficClass, rejected(meterRegistry, trafficClass, "rate_limit"));
+            shed.put(trafficClass, rejected(meterRegistry, trafficClass, "overload"));
+        }
+    }
+
+    /** Whether rate limiting or either concurrency cap is configured. */
+    public boolean isEnabled() {
+        return rateLimiter.isEnabled() || requestSlots != null || bulkSlots != null;
+    }
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        if (request.getAttribute(ADMISSION) != null) {
+            // Asynchronous dispatch of a request admitted on its first dispatch.
+            return true;
+        }
+        Traffic traffic = ((HandlerMethod) handler).getMethodAnnotation(Traffic.class);
+        TrafficClass trafficClass = classify(request, traffic);
+        String label = trafficClass.name().toLowerCase(Locale.ROOT);
+
+        long waitNanos = rateLimiter.tryAcquire(clientIdentity.of(request), trafficClass);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            rateLimited.get(trafficClass).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            throw new RateLimitExceededException(
+                    "Rate limit for "
+                            + label
+                            + " requests exceeded; retry in "
+                            + retryAfter
+                            + " s");
+        }
+
+        Admission admission = new Admission();
+        if (traffic == null || traffic.limitConcurrency()) {
+            if (requestSlots != null) {
+                if (!requestSlots.tryAcquire()) {
+                    throw overloaded(response, trafficClass, label);
+                }
+                admission.requestSlot = true;
+            }
+            if (trafficClass == TrafficClass.BULK && bulkSlots != null) {
+                if (!bulkSlots.tryAcquire()) {
+                    admission.release();
+                    throw overloaded(response, trafficClass, label);
+                }
+                admission.bulkSlot = true;
+            }
+        }
+        request.setAttribute(ADMISSION, admission);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex) {
+        Object admission = request.getAttribute(ADMISSION);
+        if (admission != null) {
+            request.removeAttribute(ADMISSION);
+            ((Admission) admission).release();
+        }
+    }
+
+    private static TrafficClass classify(HttpServletRequest request, Traffic traffic) {
+        if (traffic != null) {
+            return traffic.value();
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method)
+                ? TrafficClass.READ
+                : TrafficClass.WRITE;
+    }
+
+    private ServiceOverloadedException overloaded(
+            HttpServletResponse response, TrafficClass trafficClass, String label) {
+        shed.get(trafficClass).increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return new ServiceOverloadedException(
+                "Too many " + label + " requests in progress; retry shortly");
+    }
+
+    private static Semaphore slots(MeterRegistry meterRegistry, String limit, int permits) {
+        if (permits <= 0) {
+            return null;
+        }
+        Semaphore slots = new Semaphore(permits);
+        Gauge.builder("task.admission.in_flight", slots, s -> permits - s.availablePermits())
+                .description("Requests holding a concurrency slot")
+                .tag("limit", limit)
+                .register(meterRegistry);
+        return slots;
+    }
+
+    private static Counter rejected(
+            MeterRegistry meterRegistry, TrafficClass trafficClass, String reason) {
+        return Counter.builder("task.admission.rejected")
+                .description("Requests rejected before reaching their handler")
+                .tag("traffic", trafficClass.name().toLowerCase(Locale.ROOT))
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /** Slots held by one admitted request. */
+    private final class Admission {
+        private boolean requestSlot;
+        private boolean bulkSlot;
+
+        private void release() {
+            if (bulkSlot) {
+                bulkSlot = false;
+                bulkSlots.release();
+            }
+            if (requestSlot) {
+                requestSlot = false;
+                requestSlots.release();
+            }
+        }
+    }
+}
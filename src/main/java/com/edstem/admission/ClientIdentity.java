@@ -0,0 +1,25 @@
+package com.edstem.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names the client that sent a request: the {@code app.admission.client-header} request header, or
+ * the remote address when the header is missing. The header must be set by a trusted gateway; a
+ * client that chooses its own identity can pose as any other.
+ */
+@Component
+public class ClientIdentity {
+
+    private final String header;
+
+    public ClientIdentity(@Value("${app.admission.client-header:X-Client-Id}") String header) {
+        this.header = header;
+    }
+
+    public String of(HttpServletRequest request) {
+        String client = request.getHeader(header);
+        return client != null && !client.isEmpty() ? client : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,124 @@
+package com.edstem.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token-bucket rate limits per client, with a separate budget for each {@link TrafficClass}, so a
+ * client that exhausts its bulk budget can still read and write. Each budget is a burst capacity
+ * and a refill rate per second, set with {@code app.admission.<class>.capacity} and {@code
+ * app.admission.<class>.refill-per-second}; enabled with {@code app.admission.rate-limit.enabled}.
+ *
+ * <p>Buckets are kept for at most {@code app.admission.max-clients} clients and dropped once a
+ * client has been idle long enough for all of its buckets to be full again, so forgetting a client
+ * never grants it more than a returning client would have had.
+ */
+@Component
+public class ClientRateLimiter {
+
+    private final boolean enabled;
+    private final Map<TrafficClass, Budget> budgets;
+    private final Cache<String, TokenBucket[]> buckets;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public ClientRateLimiter(
+            @Value("${app.admission.rate-limit.enabled:false}") boolean enabled,
+            @Value("${app.admission.max-clients:100000}") long maxClients,
+            @Value("${app.admission.read.capacity:100}") double readCapacity,
+            @Value("${app.admission.read.refill-per-second:50}") double readRefillPerSecond,
+            @Value("${app.admission.write.capacity:20}") double writeCapacity,
+            @Value("${app.admission.write.refill-per-second:10}") double writeRefillPerSecond,
+            @Value("${app.admission.bulk.capacity:2}") double bulkCapacity,
+            @Value("${app.admission.bulk.refill-per-second:0.1}") double bulkRefillPerSecond) {
+        this(
+                enabled,
+                maxClients,
+                budgets(
+                        new Budget(readCapacity, readRefillPerSecond),
+                        new Budget(writeCapacity, writeRefillPerSecond),
+                        new Budget(bulkCapacity, bulkRefillPerSecond)),
+                System::nanoTime);
+    }
+
+    ClientRateLimiter(
+            boolean enabled,
+            long maxClients,
+            Map<TrafficClass, Budget> budgets,
+            LongSupplier nanoTime) {
+        this.enabled = enabled;
+        this.budgets = budgets;
+        this.nanoTime = nanoTime;
+        double refillSeconds = 0;
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            Budget budget = budgets.get(trafficClass);
+            if (budget == null || budget.capacity < 1 || budget.refillPerSecond <= 0) {
+                throw new IllegalArgumentException(
+                        "The "
+                                + trafficClass
+                                + " budget needs a capacity of at least 1 and a positive refill"
+                                + " rate");
+            }
+            refillSeconds = Math.max(refillSeconds, budget.capacity / budget.refillPerSecond);
+        }
+        this.buckets =
+                Caffeine.newBuilder()
+                        .maximumSize(maxClients)
+                        .expireAfterAccess(
+                                Duration.ofMillis((long) Math.ceil(refillSeconds * 1000)))
+                        .build();
+    }
+
+    static Map<TrafficClass, Budget> budgets(Budget read, Budget write, Budget bulk) {
+        Map<TrafficClass, Budget> budgets = new EnumMap<>(TrafficClass.class);
+        budgets.put(TrafficClass.READ, read);
+        budgets.put(TrafficClass.WRITE, write);
+        budgets.put(TrafficClass.BULK, bulk);
+        return budgets;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token from {@code client}'s {@code trafficClass} bucket and returns {@code 0}, or
+     * returns the nanoseconds until the client may retry. Always admits while disabled.
+     */
+    public long tryAcquire(String client, TrafficClass trafficClass) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = nanoTime.getAsLong();
+        return buckets.get(client, key -> newBuckets(now))[trafficClass.ordinal()].tryTake(now);
+    }
+
+    private TokenBucket[] newBuckets(long now) {
+        TrafficClass[] classes = TrafficClass.values();
+        TokenBucket[] clientBuckets = new TokenBucket[classes.length];
+        for (TrafficClass trafficClass : classes) {
+            Budget budget = budgets.get(trafficClass);
+            clientBuckets[trafficClass.ordinal()] =
+                    new TokenBucket(budget.capacity, budget.refillPerSecond, now);
+        }
+        return clientBuckets;
+    }
+
+    /** Burst capacity and sustained rate of one traffic class. */
+    static final class Budget {
+        private final double capacity;
+        private final double refillPerSecond;
+
+        Budget(double capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.edstem.admission;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The client has used up its budget for a traffic class; {@code Retry-After} says when to retry.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        // Thrown on every rejection during overload, so skip capturing a stack trace.
+        super(message, null, false, false);
+    }
+}
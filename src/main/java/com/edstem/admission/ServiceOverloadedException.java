@@ -0,0 +1,14 @@
+package com.edstem.admission;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** Every concurrency slot is taken; the request was shed without doing any work. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        // Thrown on every rejection during overload, so skip capturing a stack trace.
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,25 @@
+package com.edstem.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Classifies a handler method for {@link AdmissionInterceptor}. Unannotated handlers are {@link
+ * TrafficClass#READ} for GET and HEAD and {@link TrafficClass#WRITE} otherwise.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Traffic {
+
+    TrafficClass value();
+
+    /**
+     * Whether the request occupies a concurrency slot while it runs. Turn off for long-lived
+     * subscriptions, which would otherwise hold their slot for as long as the client listens.
+     */
+    boolean limitConcurrency() default true;
+}
@@ -0,0 +1,13 @@
+package com.edstem.admission;
+
+/**
+ * Budget a request draws on in {@link ClientRateLimiter}; chosen per endpoint with {@link Traffic}.
+ */
+public enum TrafficClass {
+    /** Reads of single tasks and pages; the default for GET and HEAD endpoints. */
+    READ,
+    /** Creates, updates and deletes of single tasks and comments; the default for the rest. */
+    WRITE,
+    /** Requests that touch many rows at once, such as imports, bulk updates and full exports. */
+    BULK
+}
@@ -0,0 +1,78 @@
+package com.edstem.cache;
+
+import com.edstem.contract.response.CacheStatsResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.support.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, expiring cache of {@link TaskResponse} by task id for single-task reads. Writers call
+ * {@link #invalidate} for every task they change; inside a transaction the entry is evicted again
+ * once the transaction completes, so a concurrent read cannot re-cache the pre-commit row.
+ *
+ * <p>A {@code app.cache.tasks.max-size} of {@code 0} disables caching. Hit, miss, eviction and size
+ * meters are published under the cache name {@code tasks}.
+ */
+@Component
+public class TaskCache implements MeterBinder {
+
+    private final Cache<Long, TaskResponse> cache;
+    private final boolean enabled;
+
+    public TaskCache(
+            @Value("${app.cache.tasks.max-size:10000}") long maxSize,
+            @Value("${app.cache.tasks.ttl:60s}") Duration ttl) {
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumSize(maxSize)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build();
+        this.enabled = maxSize > 0;
+    }
+
+    public TaskResponse get(Long id, Function<Long, TaskResponse> loader) {
+        return enabled ? cache.get(id, loader) : loader.apply(id);
+    }
+
+    /** The cached task, or {@code null} when it is not cached; never loads. */
+    public TaskResponse getIfPresent(Long id) {
+        return enabled ? cache.getIfPresent(id) : null;
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        TransactionCallbacks.afterCompletion(() -> cache.invalidate(id));
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        cache.invalidateAll(ids);
+        TransactionCallbacks.afterCompletion(() -> cache.invalidateAll(ids));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tasks");
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        CacheStatsResponse response = new CacheStatsResponse();
+        response.setSize(cache.estimatedSize());
+        response.setHits(stats.hitCount());
+        response.setMisses(stats.missCount());
+        response.setHitRate(stats.hitRate());
+        response.setEvictions(stats.evictionCount());
+        return response;
+    }
+}
@@ -0,0 +1,31 @@
+package com.edstem.config;
+
+import com.edstem.admission.AdmissionInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the {@link AdmissionInterceptor} in front of every other interceptor on the task API, when
+ * rate limiting or a concurrency cap is configured. Actuator endpoints stay unrestricted so that
+ * health checks and metrics scrapes still answer during overload.
+ */
+@Configuration(proxyBeanMethods = false)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionInterceptor admissionInterceptor;
+
+    AdmissionConfig(AdmissionInterceptor admissionInterceptor) {
+        this.admissionInterceptor = admissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (admissionInterceptor.isEnabled()) {
+            registry.addInterceptor(admissionInterceptor)
+                    .addPathPatterns("/tasks", "/tasks/**")
+                    .order(Ordered.HIGHEST_PRECEDENCE);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.edstem.config;
+
+import com.edstem.mapper.TaskMapper;
+import com.edstem.metrics.RequestPhaseInterceptor;
+import com.edstem.metrics.RequestPhases;
+import com.edstem.metrics.TimedJacksonHttpMessageConverter;
+import com.edstem.metrics.TimedTaskMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Application metrics on top of what Actuator records by itself ({@code http.server.requests} per
+ * endpoint, {@code spring.data.repository.invocations} per repository method and the Hikari pool
+ * gauges); all are scraped from {@code /actuator/prometheus}.
+ *
+ * <p>Classes annotated with {@code @Timed} get a timer per public method. With {@code
+ * app.metrics.request-phases.enabled} (the default) each request also records how long it spent
+ * querying, mapping and serializing, and how many SQL statements it issued; see {@link
+ * RequestPhaseInterceptor}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(
+            name = "app.metrics.request-phases.enabled",
+            havingValue = "true",
+            matchIfMissing = true)
+    static class RequestPhaseMetricsConfig implements WebMvcConfigurer {
+
+        private final MeterRegistry meterRegistry;
+
+        RequestPhaseMetricsConfig(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(new RequestPhaseInterceptor(meterRegistry));
+        }
+
+        @Bean
+        public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+                ObjectMapper objectMapper) {
+            return new TimedJacksonHttpMessageConverter(objectMapper);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer statementCountingCustomizer() {
+            StatementInspector countStatements =
+                    sql -> {
+                        RequestPhases.countStatement();
+                        return sql;
+                    };
+            return properties ->
+                    properties.put(AvailableSettings.STATEMENT_INSPECTOR, countStatements);
+        }
+
+        @Bean
+        public static BeanPostProcessor requestPhaseBeanPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof RepositoryFactoryBeanSupport) {
+                        ((RepositoryFactoryBeanSupport<?, ?, ?>) bean)
+                                .addRepositoryFactoryCustomizer(
+                                        factory ->
+                                                factory.addInvocationListener(
+                                                        invocation ->
+                                                                RequestPhases.add(
+                                                                        RequestPhases.Phase.QUERY,
+                                                                        invocation.getDuration(
+                                                                                TimeUnit
+                                                                                        .NANOSECONDS))));
+                    }
+                    return bean;
+                }
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof TaskMapper
+                            ? new TimedTaskMapper((TaskMapper) bean)
+                            : bean;
+                }
+            };
+        }
+    }
+}
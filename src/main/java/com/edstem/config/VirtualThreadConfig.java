@@ -0,0 +1,40 @@
+package com.edstem.config;
+
+import com.edstem.support.VirtualThreads;
+import java.util.concurrent.ExecutorService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Opt-in ({@code app.threads.virtual.enabled=true}) mode that runs every HTTP request, and the
+ * async writers of streaming responses, on their own virtual threads. Repository calls happen on
+ * the request thread, so a request blocked on JDBC no longer holds a platform thread; the number of
+ * requests in flight is bounded by the connection pool instead of Tomcat's worker pool. Requires
+ * Java 21 at runtime and fails at startup otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public ExecutorService virtualThreadExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("http-vt-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /** Replaces the pooled executor Spring MVC runs {@code StreamingResponseBody} writers on. */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
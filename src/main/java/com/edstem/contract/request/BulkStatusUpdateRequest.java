@@ -0,0 +1,17 @@
+package com.edstem.contract.request;
+
+import com.edstem.model.TaskStatus;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkStatusUpdateRequest {
+    private List<Long> ids;
+    private TaskStatus currentStatus;
+    private Long assigneeId;
+    private TaskStatus status;
+}
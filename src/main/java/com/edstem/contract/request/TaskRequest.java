@@ -1,5 +1,6 @@
 package com.edstem.contract.request;
 
+import com.edstem.model.TaskStatus;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,5 +12,5 @@ public class TaskRequest {
     private String title;
     private String description;
     private Long assigneeId;
-    private String status;
+    private TaskStatus status;
 }
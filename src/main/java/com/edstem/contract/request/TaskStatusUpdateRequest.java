@@ -1,5 +1,6 @@
 package com.edstem.contract.request;
 
+import com.edstem.model.TaskStatus;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -8,5 +9,8 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 public class TaskStatusUpdateRequest {
-    private String status;
+    private TaskStatus status;
+
+    /** When set, the status only changes if the task is currently in this status. */
+    private TaskStatus expectedStatus;
 }
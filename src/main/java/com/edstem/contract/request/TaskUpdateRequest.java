@@ -1,5 +1,6 @@
 package com.edstem.contract.request;
 
+import com.edstem.model.TaskStatus;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,5 +13,5 @@ public class TaskUpdateRequest {
     private String title;
     private String description;
     private Long assigneeId;
-    private String status;
+    private TaskStatus status;
 }
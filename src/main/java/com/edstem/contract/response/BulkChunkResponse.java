@@ -0,0 +1,16 @@
+package com.edstem.contract.response;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkChunkResponse {
+    private int chunk;
+    private int size;
+    private Long firstId;
+    private Long lastId;
+    private long elapsedMillis;
+}
@@ -0,0 +1,15 @@
+package com.edstem.contract.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkCreateResponse {
+    private long created;
+    private List<BulkChunkResponse> chunks = new ArrayList<>();
+}
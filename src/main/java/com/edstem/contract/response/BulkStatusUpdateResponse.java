@@ -0,0 +1,18 @@
+package com.edstem.contract.response;
+
+import com.edstem.model.TaskStatus;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkStatusUpdateResponse {
+    private TaskStatus status;
+    private long updated;
+    private List<Long> updatedIds = new ArrayList<>();
+    private List<Long> notFoundIds = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.edstem.contract.response;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class CommentFeedResponse {
+    private List<CommentResponse> comments;
+    private Long nextBefore;
+}
@@ -1,5 +1,6 @@
 package com.edstem.contract.response;
 
+import java.time.Instant;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -8,5 +9,7 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 public class CommentResponse {
+    private Long id;
     private String comment;
+    private Instant createdAt;
 }
@@ -0,0 +1,15 @@
+package com.edstem.contract.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedLineResponse {
+    private long line;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.edstem.contract.response;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SnapshotResponse {
+    private String path;
+    private long tasks;
+    private long comments;
+    private long bytes;
+    private long millis;
+}
@@ -0,0 +1,16 @@
+package com.edstem.contract.response;
+
+import com.edstem.model.TaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusCountResponse {
+    private TaskStatus status;
+    private long count;
+}
@@ -0,0 +1,22 @@
+package com.edstem.contract.response;
+
+import com.edstem.events.TaskEventType;
+import com.edstem.model.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEventResponse {
+    private TaskEventType type;
+    private Long taskId;
+    private TaskResponse task;
+    private CommentResponse comment;
+    private List<Long> taskIds;
+    private TaskStatus status;
+}
@@ -0,0 +1,20 @@
+package com.edstem.contract.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class TaskImportResponse {
+    private long received;
+    private long imported;
+    private long rejected;
+    private int chunks;
+    private Long firstId;
+    private Long lastId;
+    private List<RejectedLineResponse> rejectedLines = new ArrayList<>();
+}
@@ -1,5 +1,7 @@
 package com.edstem.contract.response;
 
+import com.edstem.model.TaskStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,5 +14,12 @@ public class TaskResponse {
     private String title;
     private String description;
     private Long assigneeId;
-    private String status;
+    private TaskStatus status;
+    private Long version;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long commentCount;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CommentResponse latestComment;
 }
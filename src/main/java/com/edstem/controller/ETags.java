@@ -0,0 +1,75 @@
+package com.edstem.controller;
+
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.repository.TaskVersion;
+import java.util.List;
+
+/**
+ * Strong entity tags derived from task versions and comment ids, so a conditional request can be
+ * answered from a version lookup instead of the full representation. Each tag has a form that can
+ * be computed both from the version query and from the response it describes.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    /** Tag of a single task: its version. */
+    static String forVersion(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /** The version in a single strong tag issued by {@link #forVersion}, otherwise {@code null}. */
+    static Long parseVersion(String etag) {
+        String tag = etag.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Tag of a task listing page: its size and a hash of the (id, version) pairs in order. */
+    static String forTasks(List<TaskResponse> tasks) {
+        long hash = 17;
+        for (TaskResponse task : tasks) {
+            hash = mix(hash, task.getId(), task.getVersion());
+        }
+        return forPage(tasks.size(), hash);
+    }
+
+    static String forTaskVersions(List<TaskVersion> versions) {
+        long hash = 17;
+        for (TaskVersion version : versions) {
+            hash = mix(hash, version.getId(), version.getVersion());
+        }
+        return forPage(versions.size(), hash);
+    }
+
+    /** Tag of a task's comment list, which is append-only: the count and the newest id. */
+    static String forComments(long count, Long latestId) {
+        return "\"c" + count + "-" + latestId + "\"";
+    }
+
+    static String forComments(List<CommentResponse> comments) {
+        Long latestId = null;
+        for (CommentResponse comment : comments) {
+            if (comment.getId() != null && (latestId == null || comment.getId() > latestId)) {
+                latestId = comment.getId();
+            }
+        }
+        return forComments(comments.size(), latestId);
+    }
+
+    private static long mix(long hash, Long id, Long version) {
+        hash = hash * 31 + (id == null ? -1 : id);
+        return hash * 31 + (version == null ? -1 : version);
+    }
+
+    private static String forPage(int size, long hash) {
+        return "\"p" + size + "-" + Long.toHexString(hash) + "\"";
+    }
+}
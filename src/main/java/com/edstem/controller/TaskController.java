@@ -1,14 +1,47 @@
 package com.edstem.controller;
 
+import com.edstem.admission.Traffic;
+import com.edstem.admission.TrafficClass;
+import com.edstem.contract.request.BulkStatusUpdateRequest;
 import com.edstem.contract.request.CommentRequest;
 import com.edstem.contract.request.TaskRequest;
 import com.edstem.contract.request.TaskStatusUpdateRequest;
 import com.edstem.contract.request.TaskUpdateRequest;
+import com.edstem.contract.response.AssigneeCountResponse;
+import com.edstem.contract.response.BulkCreateResponse;
+import com.edstem.contract.response.BulkStatusUpdateResponse;
+import com.edstem.contract.response.CacheStatsResponse;
+import com.edstem.contract.response.CommentFeedResponse;
 import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.SnapshotResponse;
+import com.edstem.contract.response.StatusCountResponse;
+import com.edstem.contract.response.TaskImportResponse;
 import com.edstem.contract.response.TaskResponse;
+import com.edstem.contract.response.TaskSearchResponse;
+import com.edstem.export.TaskExportWriter;
+import com.edstem.export.TaskExporter;
+import com.edstem.idempotency.IdempotentRequests;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentListVersion;
+import com.edstem.service.TaskBulkService;
 import com.edstem.service.TaskService;
+import com.edstem.snapshot.TaskSnapshotService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,34 +50,197 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/tasks")
 @AllArgsConstructor
 public class TaskController {
     private final TaskService taskService;
+    private final TaskBulkService taskBulkService;
+    private final ObjectMapper objectMapper;
+    private final TaskExporter taskExporter;
+    private final TaskSnapshotService taskSnapshotService;
+    private final IdempotentRequests idempotentRequests;
 
     @GetMapping
-    public List<TaskResponse> getAllTasks() {
-        return taskService.getAllTasks();
+    public ResponseEntity<List<TaskResponse>> getAllTasks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean includeCommentCount,
+            @RequestParam(defaultValue = "false") boolean includeLatestComment,
+            WebRequest request) {
+        int pageSize = pageSize(limit);
+        if (includeCommentCount || includeLatestComment) {
+            return ResponseEntity.ok(
+                    withCommentSummaries(
+                            taskService.getAllTasks(after, pageSize),
+                            includeCommentCount,
+                            includeLatestComment));
+        }
+        return conditionalPage(
+                request,
+                null,
+                null,
+                after,
+                pageSize,
+                () -> taskService.getAllTasks(after, pageSize));
     }
 
+    @Traffic(TrafficClass.BULK)
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTasks() {
+        ObjectWriter writer = objectMapper.writerFor(TaskResponse.class);
+        StreamingResponseBody body =
+                outputStream ->
+                        taskService.streamAllTasks(
+                                task -> {
+                                    try {
+                                        outputStream.write(writer.writeValueAsBytes(task));
+                                        outputStream.write('\n');
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Full export of the task table, and with {@code includeComments} the comment table, in the
+     * compact binary format of {@link TaskExportWriter}, for bulk consumers such as analytics jobs.
+     */
+    @Traffic(TrafficClass.BULK)
+    @GetMapping(value = "/export", produces = TaskExporter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(defaultValue = "false") boolean includeComments) {
+        StreamingResponseBody body =
+                outputStream ->
+                        taskExporter.export(
+                                new BufferedOutputStream(outputStream, 1 << 16), includeComments);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TaskExporter.MEDIA_TYPE))
+                .body(body);
+    }
+
+    /** Writes a snapshot of the task and comment tables to {@code app.snapshot.path}. */
+    @Traffic(TrafficClass.BULK)
+    @PostMapping("/snapshot")
+    public SnapshotResponse snapshot() throws IOException {
+        if (!taskSnapshotService.isConfigured()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Snapshots are not configured");
+        }
+        return taskSnapshotService.snapshot();
+    }
+
+    /**
+     * Creates tasks. With an {@code Idempotency-Key} header a retried request returns the tasks the
+     * first attempt created instead of creating them again; see {@link IdempotentRequests}. The
+     * list is unbounded, so admission control treats the request as bulk traffic.
+     */
+    @Traffic(TrafficClass.BULK)
     @PostMapping
-    public List<TaskResponse> createTasks(@RequestBody List<TaskRequest> taskRequests) {
-        return taskService.createTasks(taskRequests);
+    public ResponseEntity<List<TaskResponse>> createTasks(
+            @RequestBody List<TaskRequest> taskRequests, HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(
+                httpRequest,
+                "POST /tasks",
+                taskRequests,
+                () -> ResponseEntity.ok(taskService.createTasks(taskRequests)));
+    }
+
+    @Traffic(TrafficClass.BULK)
+    @PostMapping("/bulk")
+    public BulkCreateResponse createTasksInBulk(@RequestBody List<TaskRequest> taskRequests) {
+        return taskBulkService.createTasks(taskRequests);
+    }
+
+    @Traffic(TrafficClass.BULK)
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public TaskImportResponse importTasks(InputStream inputStream) throws IOException {
+        return taskBulkService.importTasks(inputStream);
+    }
+
+    @GetMapping("/counts/status")
+    public List<StatusCountResponse> countTasksByStatus() {
+        return taskService.countTasksByStatus();
+    }
+
+    @GetMapping("/counts/assignee")
+    public List<AssigneeCountResponse> countTasksByAssignee(
+            @RequestParam(required = false) TaskStatus status) {
+        return taskService.countTasksByAssignee(status);
+    }
+
+    /**
+     * Server-Sent Events stream of task changes. A reconnecting client resumes after its {@code
+     * Last-Event-ID} header, or after the {@code lastEventId} parameter on a first connect.
+     */
+    @Traffic(value = TrafficClass.READ, limitConcurrency = false)
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        return taskService.subscribeToEvents(
+                lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @GetMapping("/search")
+    public TaskSearchResponse searchTasks(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit) {
+        if (q.trim().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        int pageSize = pageSize(limit);
+        return taskService.searchTasks(q, offset, pageSize);
     }
 
+    @GetMapping("/cache/stats")
+    public CacheStatsResponse getTaskCacheStats() {
+        return taskService.getTaskCacheStats();
+    }
+
+    /**
+     * Single task with its version as a strong ETag. A matching {@code If-None-Match} is answered
+     * with 304 after a version lookup, before the task is loaded, mapped or serialized.
+     */
     @GetMapping("/{id}")
-    public TaskResponse getTask(@PathVariable Long id) {
-        return taskService.getTask(id);
+    public ResponseEntity<TaskResponse> getTask(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<Long> version = taskService.findTaskVersion(id);
+            if (version.isPresent() && request.checkNotModified(ETags.forVersion(version.get()))) {
+                return null;
+            }
+        }
+        return withVersionETag(taskService.getTask(id));
     }
 
+    /**
+     * Updates a task; with {@code If-Match} set to the task's ETag the update only applies if
+     * nobody else changed the task since, and fails with 412 otherwise.
+     */
     @PutMapping("/{id}")
-    public TaskResponse updateTask(
-            @PathVariable Long id, @RequestBody TaskUpdateRequest taskUpdateRequest) {
-        return taskService.updateTask(id, taskUpdateRequest);
+    public ResponseEntity<TaskResponse> updateTask(
+            @PathVariable Long id,
+            @RequestBody TaskUpdateRequest taskUpdateRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            expectedVersion = ETags.parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                throw new ResponseStatusException(
+                        HttpStatus.PRECONDITION_FAILED, "If-Match must be a single task ETag");
+            }
+        }
+        return withVersionETag(taskService.updateTask(id, taskUpdateRequest, expectedVersion));
     }
 
     @DeleteMapping("/{id}")
@@ -58,24 +254,182 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateTaskStatus(id, request));
     }
 
+    @Traffic(TrafficClass.BULK)
+    @PatchMapping("/status")
+    public BulkStatusUpdateResponse updateTaskStatuses(
+            @RequestBody BulkStatusUpdateRequest request) {
+        if (request.getStatus() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "status is required");
+        }
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!hasIds && request.getCurrentStatus() == null && request.getAssigneeId() == null) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "ids or a currentStatus/assigneeId filter is required");
+        }
+        return taskBulkService.updateStatuses(request);
+    }
+
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<TaskResponse>> getTasksByStatus(@PathVariable String status) {
-        return ResponseEntity.ok(taskService.getTasksByStatus(status));
+    public ResponseEntity<List<TaskResponse>> getTasksByStatus(
+            @PathVariable TaskStatus status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit,
+            WebRequest request) {
+        int pageSize = pageSize(limit);
+        return conditionalPage(
+                request,
+                status,
+                null,
+                after,
+                pageSize,
+                () -> taskService.getTasksByStatus(status, after, pageSize));
     }
 
     @GetMapping("/assignee/{assigneeId}")
-    public ResponseEntity<List<TaskResponse>> getTasksByAssignee(@PathVariable Long assigneeId) {
-        return ResponseEntity.ok(taskService.getTasksByAssignee(assigneeId));
+    public ResponseEntity<List<TaskResponse>> getTasksByAssignee(
+            @PathVariable Long assigneeId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit,
+            WebRequest request) {
+        int pageSize = pageSize(limit);
+        return conditionalPage(
+                request,
+                null,
+                assigneeId,
+                after,
+                pageSize,
+                () -> taskService.getTasksByAssignee(assigneeId, after, pageSize));
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<List<TaskResponse>> filterTasks(
+            @RequestParam(required = false) TaskStatus status,
+            @RequestParam(required = false) Long assigneeId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "false") boolean includeCommentCount,
+            @RequestParam(defaultValue = "false") boolean includeLatestComment,
+            WebRequest request) {
+        int pageSize = pageSize(limit);
+        if (includeCommentCount || includeLatestComment) {
+            return ResponseEntity.ok(
+                    withCommentSummaries(
+                            taskService.filterTasks(status, assigneeId, after, pageSize),
+                            includeCommentCount,
+                            includeLatestComment));
+        }
+        return conditionalPage(
+                request,
+                status,
+                assigneeId,
+                after,
+                pageSize,
+                () -> taskService.filterTasks(status, assigneeId, after, pageSize));
+    }
+
+    /** Adds a comment; honours {@code Idempotency-Key} like {@link #createTasks}. */
     @PostMapping("/{id}/comments")
     public ResponseEntity<CommentResponse> addCommentToTask(
-            @PathVariable Long id, @RequestBody CommentRequest request) {
-        return ResponseEntity.ok(taskService.addCommentToTask(id, request));
+            @PathVariable Long id,
+            @RequestBody CommentRequest request,
+            HttpServletRequest httpRequest) {
+        return idempotentRequests.execute(
+                httpRequest,
+                "POST /tasks/" + id + "/comments",
+                request,
+                () -> {
+                    CommentResponse response = taskService.addCommentToTask(id, request);
+                    if (taskService.isCommentWriteDeferred()) {
+                        return ResponseEntity.accepted().body(response);
+                    }
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    @GetMapping("/comments")
+    public ResponseEntity<Map<Long, List<CommentResponse>>> getCommentsForTasks(
+            @RequestParam Set<Long> taskIds,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = pageSize(limit);
+        if (taskIds.size() > TaskService.MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "at most " + TaskService.MAX_PAGE_SIZE + " taskIds per request");
+        }
+        return ResponseEntity.ok(taskService.getCommentsForTasks(taskIds, pageSize));
     }
 
     @GetMapping("/{id}/comments")
-    public ResponseEntity<List<CommentResponse>> getTaskComments(@PathVariable Long id) {
-        return ResponseEntity.ok(taskService.getTaskComments(id));
+    public ResponseEntity<List<CommentResponse>> getTaskComments(
+            @PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            CommentListVersion version = taskService.findCommentListVersion(id);
+            if (request.checkNotModified(
+                    ETags.forComments(version.getCount(), version.getLatestId()))) {
+                return null;
+            }
+        }
+        List<CommentResponse> comments = taskService.getTaskComments(id);
+        return ResponseEntity.ok().eTag(ETags.forComments(comments)).body(comments);
+    }
+
+    @GetMapping("/{id}/comments/feed")
+    public ResponseEntity<CommentFeedResponse> getCommentFeed(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = pageSize(limit);
+        return ResponseEntity.ok(taskService.getCommentFeed(id, before, pageSize));
+    }
+
+    /**
+     * Page size for a {@code limit} parameter. Limits below 1 are refused with 400; limits above
+     * {@link TaskService#MAX_PAGE_SIZE} are capped to it.
+     */
+    private static int pageSize(int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1");
+        }
+        return Math.min(limit, TaskService.MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Keyset page with an ETag over the (id, version) pairs it contains. A matching {@code
+     * If-None-Match} is answered with 304 from the ids and versions alone; otherwise {@code page}
+     * loads the tasks. Listings with comment summaries are not tagged, since comments do not change
+     * task versions.
+     */
+    private ResponseEntity<List<TaskResponse>> conditionalPage(
+            WebRequest request,
+            TaskStatus status,
+            Long assigneeId,
+            Long after,
+            int limit,
+            Supplier<List<TaskResponse>> page) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(
+                        ETags.forTaskVersions(
+                                taskService.findTaskPageVersions(
+                                        status, assigneeId, after, limit)))) {
+            return null;
+        }
+        List<TaskResponse> tasks = page.get();
+        return ResponseEntity.ok().eTag(ETags.forTasks(tasks)).body(tasks);
+    }
+
+    private static ResponseEntity<TaskResponse> withVersionETag(TaskResponse task) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (task.getVersion() != null) {
+            response.eTag(ETags.forVersion(task.getVersion()));
+        }
+        return response.body(task);
+    }
+
+    private List<TaskResponse> withCommentSummaries(
+            List<TaskResponse> tasks, boolean includeCommentCount, boolean includeLatestComment) {
+        if (includeCommentCount || includeLatestComment) {
+            taskService.addCommentSummaries(tasks, includeCommentCount, includeLatestComment);
+        }
+        return tasks;
     }
 }
@@ -0,0 +1,18 @@
+package com.edstem.controller;
+
+import com.edstem.model.TaskStatus;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds {@code status} path variables and query parameters by label, as in request bodies, instead
+ * of by enum constant name. Unknown labels fail the binding, which answers 400.
+ */
+@Component
+class TaskStatusParameterConverter implements Converter<String, TaskStatus> {
+
+    @Override
+    public TaskStatus convert(String label) {
+        return TaskStatus.fromLabel(label);
+    }
+}
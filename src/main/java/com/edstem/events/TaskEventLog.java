@@ -0,0 +1,399 @@
+package com.edstem.events;
+
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskEventResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.TaskStatus;
+import com.edstem.support.TransactionCallbacks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Bounded in-memory log of task changes, streamed to subscribers as Server-Sent Events. Writers
+ * publish after their transaction commits; each event gets the next sequence number and is kept
+ * until {@code app.events.capacity} newer events push it out.
+ *
+ * <p>Event ids are {@code <boot>-<seq>}, where {@code boot} identifies this process. A subscriber
+ * that reconnects with a {@code Last-Event-ID} still inside the log receives the events it missed;
+ * one that is too far behind, or whose id comes from an earlier process, receives a {@link
+ * TaskEventType#RESET} event instead and should reload its tasks.
+ *
+ * <p>All log and subscriber state is confined to one dispatcher thread, so a subscriber's replay
+ * cannot interleave with new events. The dispatcher only hands events to each subscriber's buffer
+ * of {@code app.events.subscriber-buffer} events, which one sender at a time drains; a subscriber
+ * whose buffer fills up, or that finds all {@code app.events.sender-threads} senders busy and
+ * their {@code app.events.sender-queue-capacity} backlog full, is completed and has to reconnect.
+ * Writers never block: when more than {@code app.events.dispatch-queue-capacity} events wait for
+ * the dispatcher, new ones are dropped, the log is cleared and every subscriber receives a {@code
+ * RESET}.
+ */
+@Component
+@Slf4j
+public class TaskEventLog {
+
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int subscriberBuffer;
+    private final long emitterTimeoutMillis;
+    private final Executor dispatcher;
+    private final Executor senders;
+    private final ScheduledExecutorService scheduler;
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicBoolean eventsDropped = new AtomicBoolean();
+
+    private final ArrayDeque<Entry> events = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private long lastSeq;
+
+    @Autowired
+    public TaskEventLog(
+            ObjectMapper objectMapper,
+            @Value("${app.events.capacity:10000}") int capacity,
+            @Value("${app.events.subscriber-buffer:1000}") int subscriberBuffer,
+            @Value("${app.events.dispatch-queue-capacity:10000}") int dispatchQueueCapacity,
+            @Value("${app.events.sender-threads:64}") int senderThreads,
+            @Value("${app.events.sender-queue-capacity:1000}") int senderQueueCapacity,
+            @Value("${app.events.emitter-timeout:30m}") Duration emitterTimeout,
+            @Value("${app.events.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.subscriberBuffer = subscriberBuffer;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.dispatcher =
+                new ThreadPoolExecutor(
+                        1,
+                        1,
+                        0,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(dispatchQueueCapacity),
+                        daemon("task-events"));
+        ThreadPoolExecutor senders =
+                new ThreadPoolExecutor(
+                        senderThreads,
+                        senderThreads,
+                        60,
+                        TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(senderQueueCapacity),
+                        daemon("task-events-send"));
+        senders.allowCoreThreadTimeOut(true);
+        this.senders = senders;
+        this.scheduler =
+                Executors.newSingleThreadScheduledExecutor(daemon("task-events-heartbeat"));
+        long heartbeatMillis = heartbeatInterval.toMillis();
+        scheduler.scheduleAtFixedRate(
+                () -> dispatch(this::heartbeat),
+                heartbeatMillis,
+                heartbeatMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    TaskEventLog(
+            ObjectMapper objectMapper,
+            int capacity,
+            int subscriberBuffer,
+            Duration emitterTimeout,
+            Executor dispatcher,
+            Executor senders) {
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.subscriberBuffer = subscriberBuffer;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.scheduler = null;
+        this.dispatcher = dispatcher;
+        this.senders = senders;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public void taskCreated(TaskResponse task) {
+        TaskEventResponse event = event(TaskEventType.CREATED, task.getId());
+        event.setTask(task);
+        publish(event);
+    }
+
+    public void taskUpdated(TaskResponse task) {
+        TaskEventResponse event = event(TaskEventType.UPDATED, task.getId());
+        event.setTask(task);
+        publish(event);
+    }
+
+    public void taskDeleted(Long taskId) {
+        publish(event(TaskEventType.DELETED, taskId));
+    }
+
+    public void commentAdded(Long taskId, CommentResponse comment) {
+        TaskEventResponse event = event(TaskEventType.COMMENT_ADDED, taskId);
+        event.setComment(comment);
+        publish(event);
+    }
+
+    public void tasksBulkCreated(List<Long> taskIds) {
+        TaskEventResponse event = event(TaskEventType.BULK_CREATED, null);
+        event.setTaskIds(new ArrayList<>(taskIds));
+        publish(event);
+    }
+
+    public void statusBulkUpdated(List<Long> taskIds, TaskStatus status) {
+        TaskEventResponse event = event(TaskEventType.STATUS_BULK_UPDATED, null);
+        event.setTaskIds(new ArrayList<>(taskIds));
+        event.setStatus(status);
+        publish(event);
+    }
+
+    /**
+     * Opens a stream of task events. Without {@code lastEventId} only new events are sent;
+     * otherwise the retained events after it are replayed first.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+    void subscribe(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        Runnable unsubscribe =
+                () -> {
+                    subscriber.closed = true;
+                    dispatch(() -> subscribers.remove(subscriber));
+                };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        dispatch(
+                () -> {
+                    if (lastEventId == null || replay(subscriber, lastEventId)) {
+                        subscribers.add(subscriber);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatch(() -> new ArrayList<>(subscribers).forEach(Subscriber::complete));
+        if (scheduler != null) {
+            scheduler.shutdown();
+            ((ExecutorService) dispatcher).shutdown();
+        }
+    }
+
+    private static TaskEventResponse event(TaskEventType type, Long taskId) {
+        TaskEventResponse event = new TaskEventResponse();
+        event.setType(type);
+        event.setTaskId(taskId);
+        return event;
+    }
+
+    private void publish(TaskEventResponse event) {
+        TransactionCallbacks.afterCommit(
+                () -> {
+                    if (!dispatch(() -> append(event))
+                            && eventsDropped.compareAndSet(false, true)) {
+                        log.warn("Task event dispatcher is saturated; dropping events");
+                    }
+                });
+    }
+
+    private boolean dispatch(Runnable task) {
+        try {
+            dispatcher.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Task event dispatcher is shut down or saturated; dropping work");
+            return false;
+        }
+    }
+
+    private void append(TaskEventResponse event) {
+        resetIfEventsDropped();
+        Entry entry;
+        try {
+            entry = new Entry(++lastSeq, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.error(
+                    "Dropping unserializable {} event for task {}",
+                    event.getType(),
+                    event.getTaskId(),
+                    e);
+            return;
+        }
+        events.addLast(entry);
+        if (events.size() > capacity) {
+            events.removeFirst();
+        }
+        broadcast(entry);
+    }
+
+    /**
+     * After events were dropped the log no longer holds everything a subscriber may have missed, so
+     * it is cleared and every subscriber is told to reload.
+     */
+    private void resetIfEventsDropped() {
+        if (eventsDropped.getAndSet(false)) {
+            events.clear();
+            broadcast(reset());
+        }
+    }
+
+    private void broadcast(Entry entry) {
+        subscribers.removeIf(subscriber -> !subscriber.offer(entry.toEvent(bootId)));
+    }
+
+    /**
+     * Queues the events after {@code lastEventId}, or a reset; returns whether the subscriber is
+     * usable. A replay that would not fit into the subscriber's buffer is answered with a reset.
+     */
+    private boolean replay(Subscriber subscriber, String lastEventId) {
+        long after = parseSeq(lastEventId);
+        long firstRetained = events.isEmpty() ? lastSeq + 1 : events.peekFirst().seq;
+        if (after < firstRetained - 1 || after > lastSeq || lastSeq - after > subscriberBuffer) {
+            return subscriber.offer(reset().toEvent(bootId));
+        }
+        for (Entry entry : events) {
+            if (entry.seq > after && !subscriber.offer(entry.toEvent(bootId))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entry reset() {
+        try {
+            return new Entry(
+                    lastSeq, objectMapper.writeValueAsString(event(TaskEventType.RESET, null)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long parseSeq(String eventId) {
+        String prefix = bootId + "-";
+        if (eventId.startsWith(prefix)) {
+            try {
+                return Long.parseLong(eventId.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void heartbeat() {
+        resetIfEventsDropped();
+        subscribers.removeIf(
+                subscriber -> !subscriber.offer(SseEmitter.event().comment("keep-alive")));
+    }
+
+    /**
+     * One connected client: the dispatcher offers events to its bounded buffer and at most one
+     * sender task at a time writes them to the emitter, so only this client waits on its socket.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.buffer = new LinkedBlockingQueue<>(subscriberBuffer);
+        }
+
+        /** Queues an event; returns false once the subscriber is closed or has fallen behind. */
+        private boolean offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return false;
+            }
+            if (!buffer.offer(event)) {
+                log.debug("Completing task event subscriber whose buffer is full");
+                complete();
+                return false;
+            }
+            if (draining.compareAndSet(false, true) && !execute(this::drain)) {
+                // No send is in progress, so completing here cannot wait on a stuck socket.
+                log.debug("Completing task event subscriber; all senders are busy");
+                buffer.clear();
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        closed = true;
+                    }
+                }
+                draining.set(false);
+            } while (!closed && !buffer.isEmpty() && draining.compareAndSet(false, true));
+            if (closed) {
+                buffer.clear();
+            }
+        }
+
+        /** Completes on a sender thread, since the emitter stays locked while a send is stuck. */
+        private void complete() {
+            closed = true;
+            buffer.clear();
+            execute(emitter::complete);
+        }
+
+        private boolean execute(Runnable task) {
+            try {
+                senders.execute(task);
+                return true;
+            } catch (RejectedExecutionException e) {
+                closed = true;
+                return false;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long seq;
+        private final String json;
+
+        private Entry(long seq, String json) {
+            this.seq = seq;
+            this.json = json;
+        }
+
+        private SseEmitter.SseEventBuilder toEvent(String bootId) {
+            return SseEmitter.event().id(bootId + "-" + seq).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+}
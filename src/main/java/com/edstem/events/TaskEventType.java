@@ -0,0 +1,16 @@
+package com.edstem.events;
+
+public enum TaskEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    COMMENT_ADDED,
+    STATUS_BULK_UPDATED,
+    /** Tasks created by a bulk create or import, listed by id; load them if needed. */
+    BULK_CREATED,
+    /**
+     * The events after the subscriber's {@code Last-Event-ID} are no longer retained; the client
+     * should reload the tasks it tracks before applying further events.
+     */
+    RESET
+}
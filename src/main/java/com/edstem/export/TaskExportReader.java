@@ -0,0 +1,136 @@
+package com.edstem.export;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Decodes a stream written by {@link TaskExportWriter}, handing each record to a {@link Sink}. */
+public class TaskExportReader {
+
+    /** Receives the records of an export in the order they were written. */
+    public interface Sink {
+        void task(
+                long id,
+                String title,
+                String description,
+                Long assigneeId,
+                String status,
+                Long version)
+                throws IOException;
+
+        void comment(long id, Long taskId, String comment, Instant createdAt) throws IOException;
+    }
+
+    private final DataInputStream in;
+
+    public TaskExportReader(InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * Reads the whole export.
+     *
+     * @throws IOException if the stream is not an export, is truncated or its record counts do not
+     *     match the end record
+     */
+    public void read(Sink sink) throws IOException {
+        byte[] magic = new byte[TaskExportWriter.MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, TaskExportWriter.MAGIC)) {
+            throw new IOException("Not a task export");
+        }
+        int version = in.read();
+        if (version != TaskExportWriter.VERSION
+                && version != TaskExportWriter.VERSION_PLAIN_COMMENT_TASK_ID) {
+            throw new IOException("Unsupported task export version " + version);
+        }
+        List<String> statuses = new ArrayList<>();
+        long taskId = 0;
+        long commentId = 0;
+        long tasks = 0;
+        long comments = 0;
+        while (true) {
+            int tag = in.read();
+            if (tag == TaskExportWriter.STATUS) {
+                int code = (int) readVarLong();
+                if (code != statuses.size() + 1) {
+                    throw new IOException("Status code " + code + " out of sequence");
+                }
+                statuses.add(readString());
+            } else if (tag == TaskExportWriter.TASK) {
+                taskId += readVarLong();
+                String title = readString();
+                String description = readString();
+                Long assigneeId = readNullableLong();
+                int statusCode = (int) readVarLong();
+                if (statusCode > statuses.size()) {
+                    throw new IOException("Undefined status code " + statusCode);
+                }
+                String status = statusCode == 0 ? null : statuses.get(statusCode - 1);
+                sink.task(taskId, title, description, assigneeId, status, readNullableLong());
+                tasks++;
+            } else if (tag == TaskExportWriter.COMMENT) {
+                commentId += readVarLong();
+                Long commentTaskId =
+                        version == TaskExportWriter.VERSION_PLAIN_COMMENT_TASK_ID
+                                ? Long.valueOf(readVarLong())
+                                : readNullableLong();
+                String comment = readString();
+                Long micros = readNullableLong();
+                sink.comment(
+                        commentId,
+                        commentTaskId,
+                        comment,
+                        micros == null ? null : Instant.EPOCH.plus(micros, ChronoUnit.MICROS));
+                comments++;
+            } else if (tag == TaskExportWriter.END) {
+                if (readVarLong() != tasks || readVarLong() != comments) {
+                    throw new IOException("Task export record counts do not match");
+                }
+                return;
+            } else if (tag < 0) {
+                throw new EOFException("Task export is truncated");
+            } else {
+                throw new IOException("Unknown task export record " + tag);
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[Math.toIntExact(length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Long readNullableLong() throws IOException {
+        long encoded = readVarLong();
+        if (encoded == 0) {
+            return null;
+        }
+        long zigzag = encoded - 1;
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in task export");
+    }
+}
@@ -0,0 +1,134 @@
+package com.edstem.export;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes tasks and comments in the compact export format. The stream starts with the magic {@code
+ * TSKX} and a version byte, followed by tagged records and an end record:
+ *
+ * <ul>
+ *   <li>{@code 'S'} status dictionary entry: code, name. Written the first time a status occurs;
+ *       task records then refer to the status by code.
+ *   <li>{@code 'T'} task: id delta from the previous task, title, description, assignee id, status
+ *       code, version.
+ *   <li>{@code 'C'} comment: id delta from the previous comment, nullable task id, text, creation
+ *       time in epoch microseconds. Version 1 stored the task id as a plain varint, so it could not
+ *       express a comment without a task.
+ *   <li>{@code 'E'} end: number of tasks, number of comments.
+ * </ul>
+ *
+ * <p>Integers are unsigned LEB128 varints; nullable values are stored shifted by one so that {@code
+ * 0} means null, and signed ones are zigzag-encoded first. Strings are a nullable byte length
+ * followed by UTF-8. Records must be written in ascending id order, tasks before comments.
+ */
+public class TaskExportWriter {
+
+    static final byte[] MAGIC = {'T', 'S', 'K', 'X'};
+    static final int VERSION = 2;
+    static final int VERSION_PLAIN_COMMENT_TASK_ID = 1;
+    static final int STATUS = 'S';
+    static final int TASK = 'T';
+    static final int COMMENT = 'C';
+    static final int END = 'E';
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> statusCodes = new HashMap<>();
+    private long previousTaskId;
+    private long previousCommentId;
+    private long tasks;
+    private long comments;
+
+    public TaskExportWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+    }
+
+    public void writeTask(
+            long id, String title, String description, Long assigneeId, String status, Long version)
+            throws IOException {
+        int statusCode = statusCode(status);
+        out.write(TASK);
+        writeVarLong(id - previousTaskId);
+        writeString(title);
+        writeString(description);
+        writeNullableLong(assigneeId);
+        writeVarLong(statusCode);
+        writeNullableLong(version);
+        previousTaskId = id;
+        tasks++;
+    }
+
+    public void writeComment(long id, Long taskId, String comment, Instant createdAt)
+            throws IOException {
+        out.write(COMMENT);
+        writeVarLong(id - previousCommentId);
+        writeNullableLong(taskId);
+        writeString(comment);
+        writeNullableLong(
+                createdAt == null ? null : ChronoUnit.MICROS.between(Instant.EPOCH, createdAt));
+        previousCommentId = id;
+        comments++;
+    }
+
+    /** Writes the end record and flushes; the underlying stream is left open. */
+    public void finish() throws IOException {
+        out.write(END);
+        writeVarLong(tasks);
+        writeVarLong(comments);
+        out.flush();
+    }
+
+    public long getTaskCount() {
+        return tasks;
+    }
+
+    public long getCommentCount() {
+        return comments;
+    }
+
+    /** Dictionary code of {@code status} plus one ({@code 0} for null), defining it if new. */
+    private int statusCode(String status) throws IOException {
+        if (status == null) {
+            return 0;
+        }
+        Integer code = statusCodes.get(status);
+        if (code == null) {
+            code = statusCodes.size() + 1;
+            statusCodes.put(status, code);
+            out.write(STATUS);
+            writeVarLong(code);
+            writeString(status);
+        }
+        return code;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private void writeNullableLong(Long value) throws IOException {
+        writeVarLong(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,116 @@
+package com.edstem.export;
+
+import com.edstem.model.TaskStatus;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams the task table, and optionally the comment table, in the {@link TaskExportWriter} format.
+ * Rows are read through a forward-only, read-only JDBC cursor with a bounded fetch size and encoded
+ * as they arrive, without entities, the persistence context, mapping or JSON, so an export of any
+ * size runs in constant memory on one connection.
+ */
+@Component
+public class TaskExporter {
+
+    public static final String MEDIA_TYPE = "application/x-task-export";
+
+    static final int FETCH_SIZE = 1000;
+
+    static final String TASKS_SQL =
+            "select id, title, description, assignee_id, status, version from task order by id";
+    static final String COMMENTS_SQL =
+            "select id, task_id, comment, created_at from comment order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public TaskExporter(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Writes the export to {@code out}, which is flushed but not closed. Both tables are read in
+     * one read-only transaction, which also lets drivers such as PostgreSQL use a server-side
+     * cursor. The transaction is REPEATABLE READ, a snapshot on both H2 and PostgreSQL, so the
+     * comments are those of the exported tasks even while tasks and comments are being added.
+     */
+    public TaskExportWriter export(OutputStream out, boolean includeComments) throws IOException {
+        TaskExportWriter writer = new TaskExportWriter(out);
+        try {
+            readOnlyTransaction.executeWithoutResult(
+                    status -> {
+                        jdbcTemplate.query(TASKS_SQL, unchecked(rs -> writeTask(writer, rs)));
+                        if (includeComments) {
+                            jdbcTemplate.query(
+                                    COMMENTS_SQL, unchecked(rs -> writeComment(writer, rs)));
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return writer;
+    }
+
+    private static void writeTask(TaskExportWriter writer, ResultSet rs)
+            throws SQLException, IOException {
+        writer.writeTask(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                nullableLong(rs, 4),
+                statusLabel(rs, 5),
+                nullableLong(rs, 6));
+    }
+
+    private static void writeComment(TaskExportWriter writer, ResultSet rs)
+            throws SQLException, IOException {
+        OffsetDateTime createdAt = rs.getObject(4, OffsetDateTime.class);
+        writer.writeComment(
+                rs.getLong(1),
+                rs.getObject(2, Long.class),
+                rs.getString(3),
+                createdAt == null ? null : createdAt.toInstant());
+    }
+
+    /** Exports carry status labels rather than the codes stored in the column. */
+    private static String statusLabel(ResultSet rs, int column) throws SQLException {
+        short code = rs.getShort(column);
+        return rs.wasNull() ? null : TaskStatus.fromCode(code).getLabel();
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static RowCallbackHandler unchecked(RowWriter rowWriter) {
+        return rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
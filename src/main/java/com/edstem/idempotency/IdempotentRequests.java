@@ -0,0 +1,204 @@
+package com.edstem.idempotency;
+
+import com.edstem.admission.ClientIdentity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Makes non-idempotent endpoints safe to retry with an {@code Idempotency-Key} header. The first
+ * request with a key runs and its response is kept for {@code app.idempotency.ttl}; repeats get
+ * that response back, marked with {@code Idempotent-Replayed: true}, without running again. Repeats
+ * that arrive while the first is still running wait up to {@code app.idempotency.wait-timeout} for
+ * its response instead of running in parallel, and get 409 if it takes longer.
+ *
+ * <p>Keys are scoped to the client, as named by {@link ClientIdentity}, and to the endpoint, so
+ * clients that happen to pick the same key never see each other's responses. A key is remembered
+ * together with a digest of the request body; a key reused with a different body is refused with
+ * 422. Failed requests are forgotten, so a retry after an error runs again, unless the failure is
+ * {@link UnconfirmedWork}: that work may still happen, so its key stays taken until the work
+ * completes, after which retries get its result with 200, or fails. At most {@code
+ * app.idempotency.max-keys} completed responses are kept, beyond which the least used are evicted
+ * early; requests still running weigh nothing and are never evicted, so a retry cannot slip past
+ * them. A size of {@code 0} turns the header off.
+ */
+@Component
+public class IdempotentRequests implements MeterBinder {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final ClientIdentity clientIdentity;
+    private final Cache<String, Execution> executions;
+    private final boolean enabled;
+    private final long waitTimeoutMillis;
+
+    public IdempotentRequests(
+            ObjectMapper objectMapper,
+            ClientIdentity clientIdentity,
+            @Value("${app.idempotency.max-keys:100000}") long maxKeys,
+            @Value("${app.idempotency.ttl:1h}") Duration ttl,
+            @Value("${app.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.objectMapper = objectMapper;
+        this.clientIdentity = clientIdentity;
+        this.executions =
+                Caffeine.newBuilder()
+                        .maximumWeight(maxKeys)
+                        .weigher((String key, Execution execution) -> execution.weight())
+                        .expireAfterWrite(ttl)
+                        .executor(Runnable::run)
+                        .build();
+        this.enabled = maxKeys > 0;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+    }
+
+    /**
+     * Runs {@code handler} once per {@code Idempotency-Key} of {@code request}'s client on {@code
+     * endpoint}, or returns the response of the run that already used the key. Without a key the
+     * handler simply runs.
+     *
+     * @param body the request body, compared with the body of the first request with the key
+     */
+    public <T> ResponseEntity<T> execute(
+            HttpServletRequest request,
+            String endpoint,
+            Object body,
+            Supplier<ResponseEntity<T>> handler) {
+        String key = request.getHeader(HEADER);
+        if (key == null || !enabled) {
+            return handler.get();
+        }
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        // Header values cannot contain NUL, so the parts cannot run into each other.
+        String scopedKey = clientIdentity.of(request) + '\0' + endpoint + '\0' + key;
+        Execution execution = new Execution(digest(body));
+        Execution existing = executions.asMap().putIfAbsent(scopedKey, execution);
+        if (existing != null) {
+            if (!Arrays.equals(existing.digest, execution.digest)) {
+                throw new IdempotencyKeyReusedException(
+                        HEADER + " " + key + " was already used with a different request body");
+            }
+            return replay(existing, key);
+        }
+        ResponseEntity<T> response;
+        try {
+            response = handler.get();
+        } catch (RuntimeException | Error e) {
+            if (e instanceof UnconfirmedWork) {
+                settleLater(scopedKey, execution, ((UnconfirmedWork) e).completion());
+            } else {
+                forget(scopedKey, execution, e);
+            }
+            throw e;
+        }
+        complete(scopedKey, execution, response);
+        return response;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registry.gauge("task.idempotency.keys", executions, Cache::estimatedSize);
+    }
+
+    /** Completes {@code execution} with the outcome of work accepted before its request failed. */
+    private void settleLater(
+            String scopedKey, Execution execution, CompletableFuture<?> completion) {
+        completion.whenComplete(
+                (body, failure) -> {
+                    if (failure == null) {
+                        complete(scopedKey, execution, ResponseEntity.ok(body));
+                    } else {
+                        forget(scopedKey, execution, failure);
+                    }
+                });
+    }
+
+    /** Stores the response and re-weighs the entry so that it now counts toward the key limit. */
+    private void complete(String scopedKey, Execution execution, ResponseEntity<?> response) {
+        execution.response.complete(response);
+        executions.asMap().replace(scopedKey, execution, execution);
+    }
+
+    private void forget(String scopedKey, Execution execution, Throwable failure) {
+        executions.asMap().remove(scopedKey, execution);
+        execution.response.completeExceptionally(failure);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Execution execution, String key) {
+        ResponseEntity<?> response;
+        try {
+            response = execution.response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(
+                    "A request with " + HEADER + " " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(
+                    "Interrupted while waiting for the request with " + HEADER + " " + key);
+        } catch (ExecutionException e) {
+            // The first request failed and its key is forgotten; report the same failure.
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return (ResponseEntity<T>)
+                ResponseEntity.status(response.getStatusCode())
+                        .headers(response.getHeaders())
+                        .header(REPLAYED_HEADER, "true")
+                        .body(response.getBody());
+    }
+
+    private byte[] digest(Object body) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint the request body", e);
+        }
+    }
+
+    /** First request with a key: the digest of its body and, once it has run, its response. */
+    private static final class Execution {
+        private final byte[] digest;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Execution(byte[] digest) {
+            this.digest = digest;
+        }
+
+        private int weight() {
+            return response.isDone() ? 1 : 0;
+        }
+    }
+}
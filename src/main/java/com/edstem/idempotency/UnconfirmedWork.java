@@ -0,0 +1,15 @@
+package com.edstem.idempotency;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implemented by exceptions thrown after a request's work was accepted but before it was confirmed,
+ * such as a comment that was queued but not written in time. The work may still happen, so {@link
+ * IdempotentRequests} keeps the request's key and answers retries with the eventual result instead
+ * of doing the work again.
+ */
+public interface UnconfirmedWork {
+
+    /** Completes with the response body once the work is done, or exceptionally if it fails. */
+    CompletableFuture<?> completion();
+}
@@ -0,0 +1,13 @@
+package com.edstem.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The comment queue is full, or did not write a comment in time; the client should retry later. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CommentBacklogException extends RuntimeException {
+
+    public CommentBacklogException(String message) {
+        super(message);
+    }
+}
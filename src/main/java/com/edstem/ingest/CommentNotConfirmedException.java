@@ -0,0 +1,26 @@
+package com.edstem.ingest;
+
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.idempotency.UnconfirmedWork;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** A comment was queued but its write was not confirmed in time; it may still be written. */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class CommentNotConfirmedException extends CommentBacklogException
+        implements UnconfirmedWork {
+
+    private final CompletableFuture<CommentResponse> written;
+
+    public CommentNotConfirmedException(
+            String message, CompletableFuture<CommentResponse> written) {
+        super(message);
+        this.written = written;
+    }
+
+    @Override
+    public CompletableFuture<CommentResponse> completion() {
+        return written;
+    }
+}
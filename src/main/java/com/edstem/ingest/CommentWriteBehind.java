@@ -0,0 +1,322 @@
+package com.edstem.ingest;
+
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.events.TaskEventLog;
+import com.edstem.mapper.TaskMapper;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.TaskRepository;
+import com.edstem.search.TaskSearchIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Write-behind path for comments. Instead of a task lookup and an insert per request, a comment is
+ * checked against a cache of known task ids, put on a bounded queue and inserted by a single worker
+ * thread that drains up to {@code app.comments.batch-size} queued comments into one JDBC-batched
+ * transaction. A burst of comments then costs a few transactions on one connection rather than a
+ * connection per request.
+ *
+ * <p>In {@link CommentWriteMode#ACKNOWLEDGED} mode the caller waits for its batch to commit and
+ * gets the stored comment; in {@link CommentWriteMode#FIRE_AND_FORGET} mode it returns as soon as
+ * the comment is queued. When the queue stays full for {@code app.comments.enqueue-timeout} the
+ * comment is refused with {@link CommentBacklogException}. If a batch fails, for example because a
+ * task was deleted after its existence was cached, its comments are retried one by one so that only
+ * the offending ones fail. Once {@link #close()} has begun, new comments are refused with {@link
+ * CommentBacklogException} rather than queued behind a worker that is about to stop.
+ */
+@Component
+@Slf4j
+public class CommentWriteBehind implements MeterBinder {
+
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskMapper taskMapper;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskEventLog taskEventLog;
+
+    private final CommentWriteMode mode;
+    private final BlockingQueue<PendingComment> queue;
+    private final int batchSize;
+    private final long enqueueTimeoutMillis;
+    private final long ackTimeoutMillis;
+    private final Cache<Long, Boolean> knownTasks;
+
+    /**
+     * Held shared while enqueueing and exclusively while stopping, so no comment is queued late.
+     */
+    private final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+    private boolean closed;
+    private Thread worker;
+
+    public CommentWriteBehind(
+            TaskRepository taskRepository,
+            CommentRepository commentRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            TaskMapper taskMapper,
+            TaskSearchIndex taskSearchIndex,
+            TaskEventLog taskEventLog,
+            @Value("${app.comments.write-mode:sync}") CommentWriteMode mode,
+            @Value("${app.comments.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.comments.batch-size:500}") int batchSize,
+            @Value("${app.comments.enqueue-timeout:100ms}") Duration enqueueTimeout,
+            @Value("${app.comments.ack-timeout:5s}") Duration ackTimeout,
+            @Value("${app.comments.known-tasks-max-size:100000}") long knownTasksMaxSize,
+            @Value("${app.comments.known-tasks-ttl:60s}") Duration knownTasksTtl) {
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskMapper = taskMapper;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskEventLog = taskEventLog;
+        this.mode = mode;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMillis = enqueueTimeout.toMillis();
+        this.ackTimeoutMillis = ackTimeout.toMillis();
+        this.knownTasks =
+                Caffeine.newBuilder()
+                        .maximumSize(knownTasksMaxSize)
+                        .expireAfterWrite(knownTasksTtl)
+                        .build();
+    }
+
+    public CommentWriteMode getMode() {
+        return mode;
+    }
+
+    public boolean isEnabled() {
+        return mode != CommentWriteMode.SYNC;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drain, "comment-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queues a comment on task {@code taskId}. Returns the stored comment once written in
+     * acknowledged mode; in fire-and-forget mode returns immediately with only the text set.
+     *
+     * @throws CommentBacklogException if the queue is full or the writer is shutting down
+     * @throws CommentNotConfirmedException if the comment was queued but its write is not confirmed
+     *     in time
+     */
+    public CommentResponse submit(Long taskId, String comment) {
+        if (!taskExists(taskId)) {
+            throw new RuntimeException("Task not found");
+        }
+        PendingComment pending = new PendingComment(taskId, comment);
+        boolean queued;
+        shutdownLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new CommentBacklogException("Comment writer is shutting down; retry later");
+            }
+            queued = queue.offer(pending, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        } finally {
+            shutdownLock.readLock().unlock();
+        }
+        if (!queued) {
+            throw new CommentBacklogException("Comment queue is full; retry later");
+        }
+        if (mode == CommentWriteMode.FIRE_AND_FORGET) {
+            CommentResponse accepted = new CommentResponse();
+            accepted.setComment(comment);
+            return accepted;
+        }
+        return await(pending);
+    }
+
+    /** Forgets that {@code taskId} exists, so new comments on it are checked against the table. */
+    public void forgetTask(Long taskId) {
+        knownTasks.invalidate(taskId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("task.comments.queue.size", queue, BlockingQueue::size)
+                .description("Comments waiting to be written")
+                .register(registry);
+    }
+
+    /** Stops accepting new work and writes what is already queued. */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        shutdownLock.writeLock().lock();
+        try {
+            closed = true;
+            running = false;
+        } finally {
+            shutdownLock.writeLock().unlock();
+        }
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private boolean taskExists(Long taskId) {
+        if (knownTasks.getIfPresent(taskId) != null) {
+            return true;
+        }
+        if (taskRepository.existsById(taskId)) {
+            knownTasks.put(taskId, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    private CommentResponse await(PendingComment pending) {
+        try {
+            return pending.result.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new CommentNotConfirmedException(
+                    "Comment was queued but not written in time", pending.result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommentNotConfirmedException(
+                    "Interrupted while waiting for the comment write", pending.result);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException
+                    ? (RuntimeException) cause
+                    : new IllegalStateException(cause);
+        }
+    }
+
+    private void drain() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Comment writer failed; dropping {} comments", batch.size(), e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Writes {@code batch} in one transaction, or one comment at a time if that fails. */
+    void flush(List<PendingComment> batch) {
+        List<CommentResponse> written;
+        try {
+            written = transactionTemplate.execute(status -> insert(batch));
+        } catch (RuntimeException e) {
+            log.warn("Comment batch of {} failed; writing comments one by one", batch.size(), e);
+            for (PendingComment pending : batch) {
+                try {
+                    List<PendingComment> single = new ArrayList<>(1);
+                    single.add(pending);
+                    pending.result.complete(
+                            transactionTemplate.execute(status -> insert(single)).get(0));
+                } catch (RuntimeException failure) {
+                    log.warn("Dropping comment on task {}", pending.taskId, failure);
+                    pending.result.completeExceptionally(rowFailure(pending.taskId, failure));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(written.get(i));
+        }
+    }
+
+    /**
+     * Reports a task deleted since its existence was cached as not found, and any other failure as
+     * it is.
+     */
+    private RuntimeException rowFailure(Long taskId, RuntimeException failure) {
+        knownTasks.invalidate(taskId);
+        if (!taskRepository.existsById(taskId)) {
+            return new RuntimeException("Task not found", failure);
+        }
+        return failure;
+    }
+
+    private List<CommentResponse> insert(List<PendingComment> batch) {
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (PendingComment pending : batch) {
+            comments.add(
+                    Comment.builder()
+                            .task(entityManager.getReference(Task.class, pending.taskId))
+                            .comment(pending.comment)
+                            .build());
+        }
+        List<Comment> saved = commentRepository.saveAll(comments);
+        entityManager.flush();
+        List<CommentResponse> responses = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            Long taskId = batch.get(i).taskId;
+            Comment comment = saved.get(i);
+            CommentResponse response = taskMapper.toCommentResponse(comment);
+            taskSearchIndex.indexComment(taskId, comment.getComment());
+            taskEventLog.commentAdded(taskId, response);
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    static final class PendingComment {
+        private final Long taskId;
+        private final String comment;
+        private final CompletableFuture<CommentResponse> result = new CompletableFuture<>();
+
+        PendingComment(Long taskId, String comment) {
+            this.taskId = taskId;
+            this.comment = comment;
+        }
+
+        CompletableFuture<CommentResponse> result() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.edstem.ingest;
+
+/** How {@code POST /tasks/{id}/comments} writes, chosen with {@code app.comments.write-mode}. */
+public enum CommentWriteMode {
+    /** Insert the comment in the request's own transaction (the default). */
+    SYNC,
+    /** Queue the comment and answer once the batch containing it has committed. */
+    ACKNOWLEDGED,
+    /** Queue the comment and answer {@code 202 Accepted} straight away. */
+    FIRE_AND_FORGET
+}
@@ -0,0 +1,46 @@
+package com.edstem.mapper;
+
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Hand-written field-by-field mapper; no reflection and no intermediate objects. */
+@Component
+@ConditionalOnProperty(name = "app.mapper", havingValue = "direct", matchIfMissing = true)
+public class DirectTaskMapper implements TaskMapper {
+
+    @Override
+    public TaskResponse toTaskResponse(Task task) {
+        TaskResponse response = new TaskResponse();
+        response.setId(task.getId());
+        response.setTitle(task.getTitle());
+        response.setDescription(task.getDescription());
+        response.setAssigneeId(task.getAssigneeId());
+        response.setStatus(task.getStatus());
+        response.setVersion(task.getVersion());
+        return response;
+    }
+
+    @Override
+    public Task toTask(TaskRequest taskRequest) {
+        return Task.builder()
+                .title(taskRequest.getTitle())
+                .description(taskRequest.getDescription())
+                .assigneeId(taskRequest.getAssigneeId())
+                .status(taskRequest.getStatus())
+                .build();
+    }
+
+    @Override
+    public CommentResponse toCommentResponse(Comment comment) {
+        CommentResponse response = new CommentResponse();
+        response.setId(comment.getId());
+        response.setComment(comment.getComment());
+        response.setCreatedAt(comment.getCreatedAt());
+        return response;
+    }
+}
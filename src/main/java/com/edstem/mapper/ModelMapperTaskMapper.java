@@ -0,0 +1,35 @@
+package com.edstem.mapper;
+
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import lombok.RequiredArgsConstructor;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Reflective mapper backed by the {@link ModelMapper} bean, kept for comparison benchmarks. */
+@Component
+@ConditionalOnProperty(name = "app.mapper", havingValue = "modelmapper")
+@RequiredArgsConstructor
+public class ModelMapperTaskMapper implements TaskMapper {
+
+    private final ModelMapper modelMapper;
+
+    @Override
+    public TaskResponse toTaskResponse(Task task) {
+        return modelMapper.map(task, TaskResponse.class);
+    }
+
+    @Override
+    public Task toTask(TaskRequest taskRequest) {
+        return modelMapper.map(taskRequest, Task.class);
+    }
+
+    @Override
+    public CommentResponse toCommentResponse(Comment comment) {
+        return modelMapper.map(comment, CommentResponse.class);
+    }
+}
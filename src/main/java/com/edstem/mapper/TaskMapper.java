@@ -0,0 +1,19 @@
+package com.edstem.mapper;
+
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+
+/**
+ * Converts between the persistence model and the API contract. The implementation is chosen with
+ * the {@code app.mapper} property: {@code direct} (the default) or {@code modelmapper}.
+ */
+public interface TaskMapper {
+    TaskResponse toTaskResponse(Task task);
+
+    Task toTask(TaskRequest taskRequest);
+
+    CommentResponse toCommentResponse(Comment comment);
+}
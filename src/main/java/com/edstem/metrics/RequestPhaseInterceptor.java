@@ -0,0 +1,89 @@
+package com.edstem.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Collects {@link RequestPhases} for each handled request and records them, tagged with the
+ * request's method and URI template, as the {@code task.request.phase} timer (one sample per phase)
+ * and the {@code task.request.statements} summary.
+ *
+ * <p>Work done after the handler returns on another thread, such as {@code StreamingResponseBody}
+ * writers and SSE, is not attributed to the request. Such asynchronous requests are recorded once,
+ * when their final dispatch completes, with the phases collected on the handler thread.
+ */
+public class RequestPhaseInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PHASES = RequestPhaseInterceptor.class.getName() + ".phases";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestPhaseInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestPhases.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(
+            HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestPhases phases = RequestPhases.finish();
+        if (phases != null) {
+            request.setAttribute(PHASES, phases);
+        }
+    }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            Exception ex) {
+        RequestPhases phases;
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            phases = (RequestPhases) request.getAttribute(PHASES);
+            request.removeAttribute(PHASES);
+        } else {
+            phases = RequestPhases.finish();
+        }
+        if (phases == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags =
+                Tags.of(
+                        "method",
+                        request.getMethod(),
+                        "uri",
+                        pattern != null ? pattern.toString() : "UNKNOWN");
+        for (RequestPhases.Phase phase : RequestPhases.Phase.values()) {
+            Timer.builder("task.request.phase")
+                    .description("Time spent in each phase of handling a request")
+                    .tags(tags)
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .record(phases.nanos(phase), TimeUnit.NANOSECONDS);
+        }
+        DistributionSummary.builder("task.request.statements")
+                .description("SQL statements issued while handling a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(phases.statements());
+    }
+}
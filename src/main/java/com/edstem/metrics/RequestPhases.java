@@ -0,0 +1,58 @@
+package com.edstem.metrics;
+
+/**
+ * Time a request spends in each {@link Phase}, and the number of SQL statements it issues,
+ * collected on the request thread. Instrumented code calls {@link #add} and {@link
+ * #countStatement}; outside a request these are no-ops.
+ */
+public final class RequestPhases {
+
+    public enum Phase {
+        /** Repository calls, including Hibernate loading the returned entities. */
+        QUERY,
+        /** Conversion between entities and the API contract. */
+        MAPPING,
+        /** Writing the response body as JSON. */
+        SERIALIZATION
+    }
+
+    private static final ThreadLocal<RequestPhases> CURRENT = new ThreadLocal<>();
+
+    private final long[] nanos = new long[Phase.values().length];
+    private int statements;
+
+    private RequestPhases() {}
+
+    static void start() {
+        CURRENT.set(new RequestPhases());
+    }
+
+    /** Ends collection on this thread and returns what was collected, or {@code null}. */
+    static RequestPhases finish() {
+        RequestPhases phases = CURRENT.get();
+        CURRENT.remove();
+        return phases;
+    }
+
+    public static void add(Phase phase, long nanos) {
+        RequestPhases phases = CURRENT.get();
+        if (phases != null) {
+            phases.nanos[phase.ordinal()] += nanos;
+        }
+    }
+
+    public static void countStatement() {
+        RequestPhases phases = CURRENT.get();
+        if (phases != null) {
+            phases.statements++;
+        }
+    }
+
+    long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    int statements() {
+        return statements;
+    }
+}
@@ -0,0 +1,49 @@
+package com.edstem.metrics;
+
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.mapper.TaskMapper;
+import com.edstem.metrics.RequestPhases.Phase;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+
+/** Adds the time spent in the wrapped mapper to the current request's mapping phase. */
+public class TimedTaskMapper implements TaskMapper {
+
+    private final TaskMapper delegate;
+
+    public TimedTaskMapper(TaskMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public TaskResponse toTaskResponse(Task task) {
+        long start = System.nanoTime();
+        try {
+            return delegate.toTaskResponse(task);
+        } finally {
+            RequestPhases.add(Phase.MAPPING, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Task toTask(TaskRequest taskRequest) {
+        long start = System.nanoTime();
+        try {
+            return delegate.toTask(taskRequest);
+        } finally {
+            RequestPhases.add(Phase.MAPPING, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CommentResponse toCommentResponse(Comment comment) {
+        long start = System.nanoTime();
+        try {
+            return delegate.toCommentResponse(comment);
+        } finally {
+            RequestPhases.add(Phase.MAPPING, System.nanoTime() - start);
+        }
+    }
+}
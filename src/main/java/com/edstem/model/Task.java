@@ -1,26 +1,43 @@
 package com.edstem.model;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 @Entity
+@Table(
+        indexes = {
+            @Index(name = "idx_task_status", columnList = "status, id"),
+            @Index(name = "idx_task_assignee", columnList = "assigneeId, id"),
+            @Index(name = "idx_task_status_assignee", columnList = "status, assigneeId, id")
+        })
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     private String title;
     private String description;
     private Long assigneeId;
-    private String status;
+
+    @Convert(converter = TaskStatusConverter.class)
+    private TaskStatus status;
+
+    /** Incremented by every update, including the bulk UPDATE statements in the repository. */
+    @Version private Long version;
 }
@@ -0,0 +1,103 @@
+package com.edstem.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lifecycle status of a task. The API names each status by its {@link #getLabel() label}; the
+ * database stores its {@link #getCode() code} in a {@code smallint} column, and the {@code
+ * task_status} table holds the same code-to-label pairs for readers of the raw schema.
+ *
+ * <p>Codes are persisted, so they never change and retired codes are never reused; new statuses
+ * take the next free code and need a migration adding their {@code task_status} row.
+ */
+public enum TaskStatus {
+    OPEN(1, "open"),
+    IN_PROGRESS(2, "in progress"),
+    BLOCKED(3, "blocked"),
+    DONE(4, "done"),
+    CANCELLED(5, "cancelled");
+
+    private static final TaskStatus[] BY_CODE;
+    private static final Map<String, TaskStatus> BY_LABEL = new HashMap<>();
+
+    /** Labels used before the status set was fixed, still accepted from older clients. */
+    private static final Map<String, TaskStatus> LEGACY_LABELS = new HashMap<>();
+
+    static {
+        int maxCode = 0;
+        for (TaskStatus status : values()) {
+            maxCode = Math.max(maxCode, status.code);
+        }
+        BY_CODE = new TaskStatus[maxCode + 1];
+        for (TaskStatus status : values()) {
+            BY_CODE[status.code] = status;
+            BY_LABEL.put(status.label, status);
+        }
+        LEGACY_LABELS.put("pending", OPEN);
+        LEGACY_LABELS.put("completed", DONE);
+    }
+
+    private final short code;
+    private final String label;
+
+    TaskStatus(int code, String label) {
+        this.code = (short) code;
+        this.label = label;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    @JsonValue
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Status named by {@code label}, ignoring case, surrounding blanks and underscores in place of
+     * spaces, so that {@code "In Progress"} and {@code "IN_PROGRESS"} both mean {@link
+     * #IN_PROGRESS}. The legacy labels {@code "Pending"} and {@code "Completed"} mean {@link #OPEN}
+     * and {@link #DONE}.
+     *
+     * @throws IllegalArgumentException if no status has that label
+     */
+    @JsonCreator
+    public static TaskStatus fromLabel(String label) {
+        TaskStatus status = BY_LABEL.get(label);
+        if (status == null) {
+            String normalized = label.trim().replace('_', ' ').toLowerCase(Locale.ROOT);
+            status = BY_LABEL.get(normalized);
+            if (status == null) {
+                status = LEGACY_LABELS.get(normalized);
+            }
+        }
+        if (status == null) {
+            throw new IllegalArgumentException(
+                    "Unknown task status '" + label + "'; expected one of " + BY_LABEL.keySet());
+        }
+        return status;
+    }
+
+    /**
+     * Status stored as {@code code}.
+     *
+     * @throws IllegalArgumentException if no status has that code
+     */
+    public static TaskStatus fromCode(int code) {
+        TaskStatus status = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Unknown task status code " + code);
+        }
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
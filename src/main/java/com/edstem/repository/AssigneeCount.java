@@ -0,0 +1,7 @@
+package com.edstem.repository;
+
+public interface AssigneeCount {
+    Long getAssigneeId();
+
+    long getCount();
+}
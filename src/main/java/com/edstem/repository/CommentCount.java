@@ -0,0 +1,7 @@
+package com.edstem.repository;
+
+public interface CommentCount {
+    Long getTaskId();
+
+    long getCount();
+}
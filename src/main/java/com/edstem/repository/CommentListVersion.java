@@ -0,0 +1,7 @@
+package com.edstem.repository;
+
+public interface CommentListVersion {
+    long getCount();
+
+    Long getLatestId();
+}
@@ -1,11 +1,66 @@
 package com.edstem.repository;
 
 import com.edstem.model.Comment;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByTaskId(Long id);
+
+    /**
+     * The newest {@code perTask} comments of each task, newest by (created, id) as in the feed,
+     * listed oldest first per task.
+     */
+    @Query(
+            nativeQuery = true,
+            value =
+                    "select id, task_id, comment, created_at from (select c.id, c.task_id,"
+                            + " c.comment, c.created_at, row_number() over (partition by"
+                            + " c.task_id order by c.created_at desc, c.id desc) as rn"
+                            + " from comment c where c.task_id in (:taskIds)) newest"
+                            + " where rn <= :perTask order by task_id, created_at, id")
+    List<Comment> findNewestByTaskIds(
+            @Param("taskIds") Collection<Long> taskIds, @Param("perTask") int perTask);
+
+    @Query(
+            "select c.task.id as taskId, count(c) as count from Comment c"
+                    + " where c.task.id in :taskIds group by c.task.id")
+    List<CommentCount> countByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    /** The newest comment of each task, by (created, id). */
+    default List<Comment> findLatestByTaskIds(Collection<Long> taskIds) {
+        return findNewestByTaskIds(taskIds, 1);
+    }
+
+    @Query(
+            "select c from Comment c where c.task.id = :taskId"
+                    + " order by c.createdAt desc, c.id desc")
+    List<Comment> findNewestByTaskId(@Param("taskId") Long taskId, Pageable pageable);
+
+    @Query(
+            "select c from Comment c where c.task.id = :taskId and (c.createdAt < :createdAt"
+                    + " or (c.createdAt = :createdAt and c.id < :id))"
+                    + " order by c.createdAt desc, c.id desc")
+    List<Comment> findNewestByTaskIdBefore(
+            @Param("taskId") Long taskId,
+            @Param("createdAt") Instant createdAt,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    @Query(
+            "select c.id as id, c.task.id as taskId, c.comment as comment from Comment c"
+                    + " where c.id > :after order by c.id")
+    List<CommentText> findTextsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query(
+            "select count(c) as count, max(c.id) as latestId from Comment c"
+                    + " where c.task.id = :taskId")
+    CommentListVersion findListVersionByTaskId(@Param("taskId") Long taskId);
 }
@@ -0,0 +1,9 @@
+package com.edstem.repository;
+
+public interface CommentText {
+    Long getId();
+
+    Long getTaskId();
+
+    String getComment();
+}
@@ -0,0 +1,9 @@
+package com.edstem.repository;
+
+import com.edstem.model.TaskStatus;
+
+public interface StatusCount {
+    TaskStatus getStatus();
+
+    long getCount();
+}
@@ -1,15 +1,133 @@
 package com.edstem.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-    List<Task> findByStatus(String status);
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+    Object findTaskById(long l);
 
-    List<Task> findByAssigneeId(Long assigneeId);
+    List<Task> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 
-    Object findTaskById(long l);
+    List<Task> findByStatusAndIdGreaterThanOrderByIdAsc(
+            TaskStatus status, Long id, Pageable pageable);
+
+    List<Task> findByAssigneeIdAndIdGreaterThanOrderByIdAsc(
+            Long assigneeId, Long id, Pageable pageable);
+
+    List<Task> findByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+            TaskStatus status, Long assigneeId, Long id, Pageable pageable);
+
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Task t order by t.id")
+    Stream<Task> streamAllOrderById();
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Task t set t.status = :status, t.version = t.version + 1 where t.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") TaskStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.id in :ids")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.id > :after order by t.id")
+    List<Long> lockIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.status = :status and t.id > :after order by t.id")
+    List<Long> lockIdsByStatusAfter(
+            @Param("status") TaskStatus status, @Param("after") Long after, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+            "select t.id from Task t where t.assigneeId = :assigneeId and t.id > :after"
+                    + " order by t.id")
+    List<Long> lockIdsByAssigneeAfter(
+            @Param("assigneeId") Long assigneeId, @Param("after") Long after, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(
+            "select t.id from Task t where t.status = :status and t.assigneeId = :assigneeId"
+                    + " and t.id > :after order by t.id")
+    List<Long> lockIdsByStatusAndAssigneeAfter(
+            @Param("status") TaskStatus status,
+            @Param("assigneeId") Long assigneeId,
+            @Param("after") Long after,
+            Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query(
+            "update Task t set t.status = :status, t.version = t.version + 1 where t.id in :ids"
+                    + " and (:currentStatus is null or t.status = :currentStatus)"
+                    + " and (:assigneeId is null or t.assigneeId = :assigneeId)")
+    int updateStatusByIdsIfMatching(
+            @Param("ids") Collection<Long> ids,
+            @Param("currentStatus") TaskStatus currentStatus,
+            @Param("assigneeId") Long assigneeId,
+            @Param("status") TaskStatus status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Task t set t.status = :status, t.version = t.version + 1 where t.id in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") TaskStatus status);
+
+    @Query("select t.version from Task t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    List<TaskVersion> findVersionsByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<TaskVersion> findVersionsByStatusAndIdGreaterThanOrderByIdAsc(
+            TaskStatus status, Long id, Pageable pageable);
+
+    List<TaskVersion> findVersionsByAssigneeIdAndIdGreaterThanOrderByIdAsc(
+            Long assigneeId, Long id, Pageable pageable);
+
+    List<TaskVersion> findVersionsByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+            TaskStatus status, Long assigneeId, Long id, Pageable pageable);
+
+    @Query("select t.status as status, t.version as version from Task t where t.id = :id")
+    Optional<TaskState> findStateById(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query(
+            "update Task t set t.status = :status, t.version = t.version + 1 where t.id = :id"
+                    + " and (t.status = :expectedStatus"
+                    + " or (t.status is null and :expectedStatus is null))")
+    int updateStatusIfCurrent(
+            @Param("id") Long id,
+            @Param("expectedStatus") TaskStatus expectedStatus,
+            @Param("status") TaskStatus status);
+
+    @Query("select t.status as status, count(t) as count from Task t group by t.status")
+    List<StatusCount> countByStatus();
+
+    @Query(
+            "select t.status as status, count(t) as count from Task t where t.id in :ids"
+                    + " group by t.status")
+    List<StatusCount> countByStatusForIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+            "select t.assigneeId as assigneeId, count(t) as count from Task t"
+                    + " where (:status is null or t.status = :status) group by t.assigneeId")
+    List<AssigneeCount> countByAssignee(@Param("status") TaskStatus status);
 }
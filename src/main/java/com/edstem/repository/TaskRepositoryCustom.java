@@ -0,0 +1,20 @@
+package com.edstem.repository;
+
+import com.edstem.model.TaskStatus;
+
+public interface TaskRepositoryCustom {
+    /**
+     * Updates only the columns whose new value is non-null, in a single UPDATE statement that also
+     * increments the version. A non-null {@code expectedVersion} restricts the update to a task
+     * still at that version.
+     *
+     * @return the number of rows updated, {@code 0} when no task has the given id (and version)
+     */
+    int updateNonNullFields(
+            Long id,
+            String title,
+            String description,
+            Long assigneeId,
+            TaskStatus status,
+            Long expectedVersion);
+}
@@ -0,0 +1,68 @@
+package com.edstem.repository;
+
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext private EntityManager entityManager;
+
+    @Override
+    public int updateNonNullFields(
+            Long id,
+            String title,
+            String description,
+            Long assigneeId,
+            TaskStatus status,
+            Long expectedVersion) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = builder.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+        boolean dirty = false;
+        if (title != null) {
+            update.set(task.<String>get("title"), title);
+            dirty = true;
+        }
+        if (description != null) {
+            update.set(task.<String>get("description"), description);
+            dirty = true;
+        }
+        if (assigneeId != null) {
+            update.set(task.<Long>get("assigneeId"), assigneeId);
+            dirty = true;
+        }
+        if (status != null) {
+            update.set(task.<TaskStatus>get("status"), status);
+            dirty = true;
+        }
+        if (!dirty) {
+            return countById(id, expectedVersion).intValue();
+        }
+        Path<Long> version = task.get("version");
+        update.set(version, builder.sum(version, 1L));
+        if (expectedVersion == null) {
+            update.where(builder.equal(task.get("id"), id));
+        } else {
+            update.where(
+                    builder.equal(task.get("id"), id), builder.equal(version, expectedVersion));
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private Long countById(Long id, Long expectedVersion) {
+        return entityManager
+                .createQuery(
+                        "select count(t) from Task t where t.id = :id"
+                                + " and (:version is null or t.version = :version)",
+                        Long.class)
+                .setParameter("id", id)
+                .setParameter("version", expectedVersion)
+                .getSingleResult();
+    }
+}
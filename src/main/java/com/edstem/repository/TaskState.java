@@ -0,0 +1,9 @@
+package com.edstem.repository;
+
+import com.edstem.model.TaskStatus;
+
+public interface TaskState {
+    TaskStatus getStatus();
+
+    Long getVersion();
+}
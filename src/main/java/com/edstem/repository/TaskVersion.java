@@ -0,0 +1,7 @@
+package com.edstem.repository;
+
+public interface TaskVersion {
+    Long getId();
+
+    Long getVersion();
+}
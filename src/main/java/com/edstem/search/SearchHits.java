@@ -0,0 +1,13 @@
+package com.edstem.search;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** One page of ranked search matches: the task ids in rank order and the total match count. */
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+    private final long total;
+    private final List<Long> taskIds;
+}
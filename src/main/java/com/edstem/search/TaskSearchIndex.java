@@ -0,0 +1,435 @@
+package com.edstem.search;
+
+import com.edstem.model.Task;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.CommentText;
+import com.edstem.repository.TaskRepository;
+import com.edstem.support.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory inverted index over task titles, descriptions and comments. Each term maps to the ids
+ * of the tasks containing it and the number of occurrences, so a search only touches the postings
+ * of its own terms instead of scanning the table.
+ *
+ * <p>The index is loaded from the database before the application starts serving requests and is
+ * then kept current by the write paths; changes are applied after the writing transaction commits.
+ * Those callbacks can run in any order, so each document remembers the task version it was built
+ * from and ignores older ones, and a deleted task leaves a tombstone that keeps late updates and
+ * comments from bringing it back; tombstones older than {@link #TOMBSTONE_TTL_NANOS} are dropped
+ * whenever a task is removed or the index is rebuilt. Every {@code app.search.resync-interval} the index is rebuilt
+ * from the tables in the background and swapped in, which corrects any remaining drift.
+ *
+ * <p>A search matches the tasks containing every query term and ranks them by tf-idf.
+ */
+@Component
+@Slf4j
+public class TaskSearchIndex implements SmartInitializingSingleton {
+
+    static final int LOAD_PAGE_SIZE = 1000;
+
+    /** Deepest offset a search pages to; larger offsets are clamped like oversized limits. */
+    public static final int MAX_OFFSET = 10_000;
+
+    /** How long a tombstone outlives its delete; far longer than any commit callback is late. */
+    static final long TOMBSTONE_TTL_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static final Comparator<ScoredTask> BY_RANK =
+            Comparator.comparingDouble((ScoredTask scored) -> scored.score)
+                    .reversed()
+                    .thenComparingLong(scored -> scored.taskId);
+
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final long resyncIntervalMillis;
+    private final LongSupplier nanoTime;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Delete time of each removed task, oldest first. */
+    private final Map<Long, Long> tombstones = new LinkedHashMap<>();
+    private Index index = new Index();
+    private List<Consumer<Index>> replay;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public TaskSearchIndex(
+            TaskRepository taskRepository,
+            CommentRepository commentRepository,
+            @Value("${app.search.resync-interval:1h}") Duration resyncInterval) {
+        this(taskRepository, commentRepository, resyncInterval, System::nanoTime);
+    }
+
+    TaskSearchIndex(
+            TaskRepository taskRepository,
+            CommentRepository commentRepository,
+            Duration resyncInterval,
+            LongSupplier nanoTime) {
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.resyncIntervalMillis = resyncInterval.toMillis();
+        this.nanoTime = nanoTime;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+        if (resyncIntervalMillis > 0) {
+            scheduler =
+                    Executors.newSingleThreadScheduledExecutor(
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "search-resync");
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+            scheduler.scheduleWithFixedDelay(
+                    this::resync,
+                    resyncIntervalMillis,
+                    resyncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Reloads the index from the task and comment tables, a page at a time, into a new index that
+     * replaces the current one once complete; searches keep using the current one meanwhile.
+     * Changes committed during the load are replayed onto the new index before the swap, so a
+     * comment that was both loaded and replayed is counted twice until the next rebuild. This only
+     * affects ranking, not which tasks match.
+     */
+    public synchronized void rebuild() {
+        long start = nanoTime.getAsLong();
+        write(() -> replay = new ArrayList<>());
+        Index fresh = new Index();
+        try {
+            Long after = 0L;
+            List<Task> tasks;
+            do {
+                tasks =
+                        taskRepository.findByIdGreaterThanOrderByIdAsc(
+                                after, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (Task task : tasks) {
+                    fresh.putTask(
+                            task.getId(), version(task), task.getTitle(), task.getDescription());
+                }
+                if (!tasks.isEmpty()) {
+                    after = tasks.get(tasks.size() - 1).getId();
+                }
+            } while (tasks.size() == LOAD_PAGE_SIZE);
+            after = 0L;
+            List<CommentText> comments;
+            do {
+                comments =
+                        commentRepository.findTextsAfter(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (CommentText comment : comments) {
+                    fresh.putComment(comment.getTaskId(), comment.getComment());
+                }
+                if (!comments.isEmpty()) {
+                    after = comments.get(comments.size() - 1).getId();
+                }
+            } while (comments.size() == LOAD_PAGE_SIZE);
+            write(
+                    () -> {
+                        replay.forEach(change -> change.accept(fresh));
+                        index = fresh;
+                        pruneTombstones(start);
+                    });
+        } finally {
+            write(() -> replay = null);
+        }
+        log.info(
+                "Search index loaded {} tasks and {} terms in {} ms",
+                fresh.documents.size(),
+                fresh.postings.size(),
+                TimeUnit.NANOSECONDS.toMillis(nanoTime.getAsLong() - start));
+    }
+
+    /**
+     * Indexes the title and description of {@code task}, replacing any previous version. Does
+     * nothing if the index already holds a newer version or the task has been removed.
+     */
+    public void indexTask(Task task) {
+        Long id = task.getId();
+        long version = version(task);
+        String title = task.getTitle();
+        String description = task.getDescription();
+        TransactionCallbacks.afterCommit(
+                () ->
+                        apply(
+                                target -> {
+                                    if (!tombstones.containsKey(id)) {
+                                        target.putTask(id, version, title, description);
+                                    }
+                                }));
+    }
+
+    public void indexComment(Long taskId, String comment) {
+        TransactionCallbacks.afterCommit(
+                () ->
+                        apply(
+                                target -> {
+                                    if (!tombstones.containsKey(taskId)) {
+                                        target.putComment(taskId, comment);
+                                    }
+                                }));
+    }
+
+    public void removeTask(Long taskId) {
+        TransactionCallbacks.afterCommit(
+                () ->
+                        apply(
+                                target -> {
+                                    long now = nanoTime.getAsLong();
+                                    pruneTombstones(now);
+                                    tombstones.putIfAbsent(taskId, now);
+                                    target.removeTask(taskId);
+                                }));
+    }
+
+    int tombstoneCount() {
+        lock.readLock().lock();
+        try {
+            return tombstones.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Drops expired tombstones; they are in delete order, so only the oldest are visited. */
+    private void pruneTombstones(long now) {
+        Iterator<Long> deletedAt = tombstones.values().iterator();
+        while (deletedAt.hasNext() && now - deletedAt.next() > TOMBSTONE_TTL_NANOS) {
+            deletedAt.remove();
+        }
+    }
+
+    /**
+     * Ids of the tasks matching every term of {@code query}, best match first, skipping the first
+     * {@code offset} matches. Only the top {@code offset + limit} matches are kept while ranking,
+     * and {@code offset} is clamped to {@link #MAX_OFFSET}.
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        offset = Math.max(0, Math.min(offset, MAX_OFFSET));
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchHits(0, Collections.emptyList());
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Map<Long, Integer>> postings = index.postings;
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return new SearchHits(0, Collections.emptyList());
+                }
+                termPostings.add(posting);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            double[] idf = new double[termPostings.size()];
+            for (int i = 0; i < idf.length; i++) {
+                idf[i] = Math.log(1 + (double) index.documents.size() / termPostings.get(i).size());
+            }
+
+            int keep = offset + limit;
+            PriorityQueue<ScoredTask> top = new PriorityQueue<>(BY_RANK.reversed());
+            long total = 0;
+            candidates:
+            for (Map.Entry<Long, Integer> candidate : termPostings.get(0).entrySet()) {
+                Long taskId = candidate.getKey();
+                double score = (1 + Math.log(candidate.getValue())) * idf[0];
+                for (int i = 1; i < termPostings.size(); i++) {
+                    Integer frequency = termPostings.get(i).get(taskId);
+                    if (frequency == null) {
+                        continue candidates;
+                    }
+                    score += (1 + Math.log(frequency)) * idf[i];
+                }
+                total++;
+                top.add(new ScoredTask(taskId, score));
+                if (top.size() > keep) {
+                    top.poll();
+                }
+            }
+
+            List<ScoredTask> ranked = new ArrayList<>(top);
+            ranked.sort(BY_RANK);
+            List<Long> taskIds = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                taskIds.add(ranked.get(i).taskId);
+            }
+            return new SearchHits(total, taskIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Lower-cased runs of letters and digits in {@code text}. */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        text.codePoints()
+                .forEach(
+                        codePoint -> {
+                            if (Character.isLetterOrDigit(codePoint)) {
+                                token.appendCodePoint(Character.toLowerCase(codePoint));
+                            } else if (token.length() > 0) {
+                                tokens.add(token.toString());
+                                token.setLength(0);
+                            }
+                        });
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private void resync() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Search index resync failed; keeping the current index", e);
+        }
+    }
+
+    private static long version(Task task) {
+        return task.getVersion() == null ? 0 : task.getVersion();
+    }
+
+    /** Applies {@code change} to the index, and records it for the rebuild in progress, if any. */
+    private void apply(Consumer<Index> change) {
+        write(
+                () -> {
+                    change.accept(index);
+                    if (replay != null) {
+                        replay.add(change);
+                    }
+                });
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Postings and documents; replaced as a whole by {@link #rebuild()}. */
+    private static final class Index {
+        private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        private void putTask(Long taskId, long version, String title, String description) {
+            Document document = documents.computeIfAbsent(taskId, id -> new Document());
+            if (version < document.version) {
+                return;
+            }
+            document.version = version;
+            unpost(taskId, document.fieldTerms);
+            Map<String, Integer> terms = new HashMap<>();
+            count(terms, title);
+            count(terms, description);
+            document.fieldTerms = terms;
+            post(taskId, terms);
+        }
+
+        private void putComment(Long taskId, String comment) {
+            Document document = documents.computeIfAbsent(taskId, id -> new Document());
+            Map<String, Integer> terms = new HashMap<>();
+            count(terms, comment);
+            terms.forEach((term, count) -> document.commentTerms.merge(term, count, Integer::sum));
+            post(taskId, terms);
+        }
+
+        private void removeTask(Long taskId) {
+            Document document = documents.remove(taskId);
+            if (document != null) {
+                unpost(taskId, document.fieldTerms);
+                unpost(taskId, document.commentTerms);
+            }
+        }
+
+        private void post(Long taskId, Map<String, Integer> terms) {
+            terms.forEach(
+                    (term, count) ->
+                            postings.computeIfAbsent(term, key -> new HashMap<>())
+                                    .merge(taskId, count, Integer::sum));
+        }
+
+        private void unpost(Long taskId, Map<String, Integer> terms) {
+            terms.forEach(
+                    (term, count) -> {
+                        Map<Long, Integer> posting = postings.get(term);
+                        if (posting == null) {
+                            return;
+                        }
+                        posting.computeIfPresent(
+                                taskId,
+                                (id, existing) -> existing > count ? existing - count : null);
+                        if (posting.isEmpty()) {
+                            postings.remove(term);
+                        }
+                    });
+        }
+    }
+
+    private static void count(Map<String, Integer> terms, String text) {
+        tokenize(text).forEach(term -> terms.merge(term, 1, Integer::sum));
+    }
+
+    /**
+     * Terms of one task, kept so that an update or delete can retract its postings, and the task
+     * version they were read at. A document created by a comment has no version yet.
+     */
+    private static final class Document {
+        private long version = -1;
+        private Map<String, Integer> fieldTerms = Collections.emptyMap();
+        private final Map<String, Integer> commentTerms = new HashMap<>();
+    }
+
+    private static final class ScoredTask {
+        private final long taskId;
+        private final double score;
+
+        private ScoredTask(long taskId, double score) {
+            this.taskId = taskId;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.edstem.service;
+
+import com.edstem.contract.response.TaskResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the common read paths a few times before the application reports itself ready, so the first
+ * requests do not pay for opening pooled connections, Hibernate query plans, Jackson serializers
+ * and cold JIT. Failures are logged and do not prevent startup.
+ *
+ * <p>Runs as a lifecycle bean in a phase before the embedded web server starts, so the port only
+ * opens, and the readiness state only flips to accepting traffic, once warmup has finished.
+ */
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+@Slf4j
+public class StartupWarmup implements SmartLifecycle {
+
+    /** Earlier than the embedded web server, which starts at {@code DEFAULT_PHASE - 2048}. */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private volatile boolean running;
+
+    public StartupWarmup(
+            TaskService taskService,
+            ObjectMapper objectMapper,
+            @Value("${app.warmup.iterations:20}") int iterations) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void start() {
+        warmUp();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    void warmUp() {
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                List<TaskResponse> page =
+                        taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE);
+                objectMapper.writeValueAsBytes(page);
+                objectMapper.writeValueAsBytes(taskService.countTasksByStatus());
+                if (!page.isEmpty()) {
+                    TaskResponse first = page.get(0);
+                    taskService.filterTasks(
+                            first.getStatus(), null, null, TaskService.DEFAULT_PAGE_SIZE);
+                    objectMapper.writeValueAsBytes(taskService.getTaskComments(first.getId()));
+                }
+            }
+            log.info(
+                    "Warmed up read paths with {} iterations in {} ms",
+                    iterations,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Startup warmup failed; continuing without it", e);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.edstem.service;
+
+import com.edstem.cache.TaskCache;
+import com.edstem.contract.request.BulkStatusUpdateRequest;
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.BulkChunkResponse;
+import com.edstem.contract.response.BulkCreateResponse;
+import com.edstem.contract.response.BulkStatusUpdateResponse;
+import com.edstem.contract.response.RejectedLineResponse;
+import com.edstem.contract.response.TaskImportResponse;
+import com.edstem.events.TaskEventLog;
+import com.edstem.mapper.TaskMapper;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.StatusCount;
+import com.edstem.repository.TaskRepository;
+import com.edstem.search.TaskSearchIndex;
+import com.edstem.stats.TaskStatusCounters;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Large task imports and status transitions. Work is split into chunks of {@code
+ * app.bulk.chunk-size}, each in its own transaction, so statements are sent as JDBC batches or
+ * set-based updates and no single transaction (or persistence context) holds the whole request.
+ */
+@Service
+@Slf4j
+@Timed(value = "task.service", histogram = true)
+public class TaskBulkService {
+
+    static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private final TaskRepository taskRepository;
+    private final TaskMapper taskMapper;
+    private final EntityManager entityManager;
+    private final TaskCache taskCache;
+    private final TaskStatusCounters taskStatusCounters;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskEventLog taskEventLog;
+    private final ObjectReader taskRequestReader;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public TaskBulkService(
+            TaskRepository taskRepository,
+            TaskMapper taskMapper,
+            EntityManager entityManager,
+            TaskCache taskCache,
+            TaskStatusCounters taskStatusCounters,
+            TaskSearchIndex taskSearchIndex,
+            TaskEventLog taskEventLog,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.bulk.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(
+                    "app.bulk.chunk-size must be at least 1, was " + chunkSize);
+        }
+        this.taskRepository = taskRepository;
+        this.taskMapper = taskMapper;
+        this.entityManager = entityManager;
+        this.taskCache = taskCache;
+        this.taskStatusCounters = taskStatusCounters;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskEventLog = taskEventLog;
+        this.taskRequestReader = objectMapper.readerFor(TaskRequest.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkCreateResponse createTasks(List<TaskRequest> taskRequests) {
+        BulkCreateResponse response = new BulkCreateResponse();
+        for (int from = 0; from < taskRequests.size(); from += chunkSize) {
+            List<TaskRequest> chunk =
+                    taskRequests.subList(from, Math.min(from + chunkSize, taskRequests.size()));
+            BulkChunkResponse chunkResponse = persistChunk(response.getChunks().size(), chunk);
+            response.getChunks().add(chunkResponse);
+            response.setCreated(response.getCreated() + chunkResponse.getSize());
+        }
+        return response;
+    }
+
+    /**
+     * Imports newline-delimited {@link TaskRequest} JSON read incrementally from {@code
+     * inputStream}. At most one chunk of parsed requests is held in memory; reading pauses while a
+     * chunk is persisted, which pushes back on the client through the connection. Lines that do not
+     * parse as a JSON object, or that the database refuses, are counted and the first {@value
+     * #MAX_REPORTED_REJECTIONS} are reported; a chunk that fails is retried one row at a time so
+     * that only the offending rows are rejected.
+     */
+    public TaskImportResponse importTasks(InputStream inputStream) throws IOException {
+        TaskImportResponse response = new TaskImportResponse();
+        List<TaskRequest> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        BufferedReader reader =
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            response.setReceived(response.getReceived() + 1);
+            TaskRequest taskRequest;
+            try {
+                taskRequest = taskRequestReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                reject(response, lineNumber, e.getOriginalMessage());
+                continue;
+            }
+            if (taskRequest == null) {
+                reject(response, lineNumber, "Expected a JSON object but found null");
+                continue;
+            }
+            chunk.add(taskRequest);
+            chunkLines.add(lineNumber);
+            if (chunk.size() == chunkSize) {
+                importChunk(response, chunk, chunkLines);
+                chunk.clear();
+                chunkLines.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(response, chunk, chunkLines);
+        }
+        return response;
+    }
+
+    private static void reject(TaskImportResponse response, long lineNumber, String reason) {
+        response.setRejected(response.getRejected() + 1);
+        if (response.getRejectedLines().size() < MAX_REPORTED_REJECTIONS) {
+            response.getRejectedLines().add(new RejectedLineResponse(lineNumber, reason));
+        }
+    }
+
+    private void importChunk(
+            TaskImportResponse response, List<TaskRequest> chunk, List<Long> lines) {
+        int index = response.getChunks();
+        response.setChunks(index + 1);
+        try {
+            recordImported(response, persistChunk(index, chunk));
+            return;
+        } catch (RuntimeException e) {
+            log.warn(
+                    "Import chunk {} failed; importing its {} rows one by one",
+                    index,
+                    chunk.size(),
+                    e);
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                recordImported(response, persistChunk(index, chunk.subList(i, i + 1)));
+            } catch (RuntimeException e) {
+                reject(
+                        response,
+                        lines.get(i),
+                        NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    private static void recordImported(TaskImportResponse response, BulkChunkResponse chunk) {
+        response.setImported(response.getImported() + chunk.getSize());
+        if (response.getFirstId() == null) {
+            response.setFirstId(chunk.getFirstId());
+        }
+        if (chunk.getLastId() != null) {
+            response.setLastId(chunk.getLastId());
+        }
+    }
+
+    BulkChunkResponse persistChunk(int index, List<TaskRequest> chunk) {
+        long start = System.nanoTime();
+        List<Task> saved =
+                transactionTemplate.execute(
+                        status -> {
+                            List<Task> tasks =
+                                    taskRepository.saveAll(
+                                            chunk.stream()
+                                                    .map(taskMapper::toTask)
+                                                    .collect(Collectors.toList()));
+                            entityManager.flush();
+                            entityManager.clear();
+                            tasks.forEach(
+                                    task -> {
+                                        taskStatusCounters.recordCreated(task.getStatus());
+                                        taskSearchIndex.indexTask(task);
+                                    });
+                            // One event per chunk rather than per task, so a large import does
+                            // not flood the event log and its subscribers.
+                            taskEventLog.tasksBulkCreated(
+                                    tasks.stream().map(Task::getId).collect(Collectors.toList()));
+                            return tasks;
+                        });
+
+        BulkChunkResponse chunkResponse = new BulkChunkResponse();
+        chunkResponse.setChunk(index);
+        chunkResponse.setSize(saved.size());
+        if (!saved.isEmpty()) {
+            chunkResponse.setFirstId(saved.get(0).getId());
+            chunkResponse.setLastId(saved.get(saved.size() - 1).getId());
+        }
+        chunkResponse.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info(
+                "Bulk chunk {} persisted {} tasks (ids {}-{}) in {} ms",
+                index,
+                chunkResponse.getSize(),
+                chunkResponse.getFirstId(),
+                chunkResponse.getLastId(),
+                chunkResponse.getElapsedMillis());
+        return chunkResponse;
+    }
+
+    /**
+     * Moves tasks to {@code request.getStatus()} with one set-based UPDATE per chunk. Tasks are
+     * selected either by {@code ids} or, when no ids are given, by the {@code currentStatus} and
+     * {@code assigneeId} filter.
+     */
+    public BulkStatusUpdateResponse updateStatuses(BulkStatusUpdateRequest request) {
+        BulkStatusUpdateResponse response = new BulkStatusUpdateResponse();
+        response.setStatus(request.getStatus());
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            List<Long> ids = request.getIds();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                updateStatusChunk(
+                        response,
+                        ids.subList(from, Math.min(from + chunkSize, ids.size())),
+                        request.getStatus());
+            }
+            return response;
+        }
+        Long after = 0L;
+        List<Long> chunk;
+        do {
+            chunk = updateMatchingChunk(response, request, after);
+            if (!chunk.isEmpty()) {
+                after = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == chunkSize);
+        return response;
+    }
+
+    /**
+     * Updates one chunk of explicitly requested ids. The response only counts the chunk once its
+     * transaction has committed, using the row count of the UPDATE itself.
+     */
+    private void updateStatusChunk(
+            BulkStatusUpdateResponse response, List<Long> ids, TaskStatus status) {
+        ChunkUpdate chunk =
+                transactionTemplate.execute(
+                        transactionStatus -> {
+                            List<Long> found = taskRepository.lockExistingIds(ids);
+                            if (found.isEmpty()) {
+                                return new ChunkUpdate(found, 0);
+                            }
+                            recordTransitions(found, null, status);
+                            int updated = taskRepository.updateStatusByIds(found, status);
+                            afterStatusUpdate(found, status);
+                            return new ChunkUpdate(found, updated);
+                        });
+        Set<Long> updated = new HashSet<>(chunk.ids);
+        for (Long id : ids) {
+            if (updated.contains(id)) {
+                response.getUpdatedIds().add(id);
+            } else {
+                response.getNotFoundIds().add(id);
+            }
+        }
+        response.setUpdated(response.getUpdated() + chunk.updated);
+    }
+
+    /**
+     * Selects and updates the next chunk of tasks matching the request's filter in one transaction.
+     * The selected rows stay locked until the UPDATE commits, and the UPDATE repeats the filter, so
+     * a task that stopped matching is never moved.
+     */
+    private List<Long> updateMatchingChunk(
+            BulkStatusUpdateResponse response, BulkStatusUpdateRequest request, Long after) {
+        TaskStatus status = request.getStatus();
+        ChunkUpdate chunk =
+                transactionTemplate.execute(
+                        transactionStatus -> {
+                            List<Long> found = lockMatchingIds(request, after);
+                            if (found.isEmpty()) {
+                                return new ChunkUpdate(found, 0);
+                            }
+                            recordTransitions(found, request.getCurrentStatus(), status);
+                            int updated =
+                                    taskRepository.updateStatusByIdsIfMatching(
+                                            found,
+                                            request.getCurrentStatus(),
+                                            request.getAssigneeId(),
+                                            status);
+                            afterStatusUpdate(found, status);
+                            return new ChunkUpdate(found, updated);
+                        });
+        response.getUpdatedIds().addAll(chunk.ids);
+        response.setUpdated(response.getUpdated() + chunk.updated);
+        return chunk.ids;
+    }
+
+    private List<Long> lockMatchingIds(BulkStatusUpdateRequest request, Long after) {
+        TaskStatus currentStatus = request.getCurrentStatus();
+        Long assigneeId = request.getAssigneeId();
+        PageRequest page = PageRequest.of(0, chunkSize);
+        if (currentStatus != null && assigneeId != null) {
+            return taskRepository.lockIdsByStatusAndAssigneeAfter(
+                    currentStatus, assigneeId, after, page);
+        }
+        if (currentStatus != null) {
+            return taskRepository.lockIdsByStatusAfter(currentStatus, after, page);
+        }
+        if (assigneeId != null) {
+            return taskRepository.lockIdsByAssigneeAfter(assigneeId, after, page);
+        }
+        return taskRepository.lockIdsAfter(after, page);
+    }
+
+    /**
+     * Records the counter transitions for locked rows that are about to move to {@code status}.
+     * When every row is known to be in {@code currentStatus} no extra query is needed.
+     */
+    private void recordTransitions(List<Long> ids, TaskStatus currentStatus, TaskStatus status) {
+        if (!taskStatusCounters.isEnabled()) {
+            return;
+        }
+        if (currentStatus != null) {
+            taskStatusCounters.recordTransition(currentStatus, status, ids.size());
+            return;
+        }
+        for (StatusCount previous : taskRepository.countByStatusForIds(ids)) {
+            taskStatusCounters.recordTransition(previous.getStatus(), status, previous.getCount());
+        }
+    }
+
+    private void afterStatusUpdate(List<Long> ids, TaskStatus status) {
+        taskCache.invalidateAll(ids);
+        taskEventLog.statusBulkUpdated(ids, status);
+    }
+
+    /** Ids a chunk transaction touched and the row count its UPDATE reported. */
+    private static final class ChunkUpdate {
+        private final List<Long> ids;
+        private final int updated;
+
+        private ChunkUpdate(List<Long> ids, int updated) {
+            this.ids = ids;
+            this.updated = updated;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.edstem.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** A conditional write did not apply because the task is not in the state the caller expected. */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TaskConflictException extends RuntimeException {
+
+    public TaskConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,81 +1,197 @@
 package com.edstem.service;
 
+import com.edstem.cache.TaskCache;
 import com.edstem.contract.request.CommentRequest;
 import com.edstem.contract.request.TaskRequest;
 import com.edstem.contract.request.TaskStatusUpdateRequest;
 import com.edstem.contract.request.TaskUpdateRequest;
+import com.edstem.contract.response.AssigneeCountResponse;
+import com.edstem.contract.response.CacheStatsResponse;
+import com.edstem.contract.response.CommentFeedResponse;
 import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.StatusCountResponse;
 import com.edstem.contract.response.TaskResponse;
+import com.edstem.contract.response.TaskSearchResponse;
+import com.edstem.events.TaskEventLog;
+import com.edstem.ingest.CommentWriteBehind;
+import com.edstem.ingest.CommentWriteMode;
+import com.edstem.mapper.TaskMapper;
 import com.edstem.model.Comment;
 import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentCount;
+import com.edstem.repository.CommentListVersion;
 import com.edstem.repository.CommentRepository;
 import com.edstem.repository.TaskRepository;
+import com.edstem.repository.TaskState;
+import com.edstem.repository.TaskVersion;
+import com.edstem.search.SearchHits;
+import com.edstem.search.TaskSearchIndex;
+import com.edstem.stats.TaskStatusCounters;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "task.service", histogram = true)
 public class TaskService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Attempts at a read-then-conditional-write before giving up with a conflict. */
+    static final int MAX_UPDATE_ATTEMPTS = 3;
+
     private final TaskRepository taskRepository;
     private final CommentRepository commentRepository;
-    private final ModelMapper modelMapper;
+    private final TaskMapper taskMapper;
+    private final EntityManager entityManager;
+    private final TaskCache taskCache;
+    private final TaskStatusCounters taskStatusCounters;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskEventLog taskEventLog;
+    private final CommentWriteBehind commentWriteBehind;
 
-    public List<TaskResponse> getAllTasks() {
-        List<Task> tasks = (List<Task>) taskRepository.findAll();
-        return tasks.stream()
-                .map(task -> modelMapper.map(task, TaskResponse.class))
-                .collect(Collectors.toList());
+    /**
+     * Returns at most {@code limit} tasks with an id greater than {@code after}, in id order. Pass
+     * the id of the last task of a page as {@code after} to fetch the next one.
+     */
+    public List<TaskResponse> getAllTasks(Long after, int limit) {
+        return filterTasks(null, null, after, limit);
+    }
+
+    /**
+     * Hands every task to {@code consumer} in id order as rows come off the database cursor. Rows
+     * are detached once consumed so the persistence context does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllTasks(Consumer<TaskResponse> consumer) {
+        try (Stream<Task> tasks = taskRepository.streamAllOrderById()) {
+            tasks.forEach(
+                    task -> {
+                        consumer.accept(taskMapper.toTaskResponse(task));
+                        entityManager.detach(task);
+                    });
+        }
+    }
+
+    /** Stream of task changes, resuming after {@code lastEventId} when it is still retained. */
+    public SseEmitter subscribeToEvents(String lastEventId) {
+        return taskEventLog.subscribe(lastEventId);
+    }
+
+    public CacheStatsResponse getTaskCacheStats() {
+        return taskCache.stats();
+    }
+
+    /**
+     * The controller refuses limits below 1; larger limits are capped at {@link #MAX_PAGE_SIZE}.
+     */
+    static PageRequest keysetPage(int limit) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 
     public List<TaskResponse> createTasks(List<TaskRequest> taskRequests) {
         List<Task> tasks =
-                taskRequests.stream()
-                        .map(taskRequest -> modelMapper.map(taskRequest, Task.class))
-                        .collect(Collectors.toList());
+                taskRequests.stream().map(taskMapper::toTask).collect(Collectors.toList());
         tasks = (List<Task>) taskRepository.saveAll(tasks);
-        return tasks.stream()
-                .map(task -> modelMapper.map(task, TaskResponse.class))
-                .collect(Collectors.toList());
+        tasks.forEach(
+                task -> {
+                    taskStatusCounters.recordCreated(task.getStatus());
+                    taskSearchIndex.indexTask(task);
+                });
+        List<TaskResponse> responses =
+                tasks.stream().map(taskMapper::toTaskResponse).collect(Collectors.toList());
+        responses.forEach(taskEventLog::taskCreated);
+        return responses;
     }
 
     public TaskResponse getTask(Long id) {
-        Task task = findTaskById(id);
-        if (task == null) {
+        return taskCache.get(id, key -> taskMapper.toTaskResponse(findTaskById(key)));
+    }
+
+    /**
+     * Applies the non-null fields of {@code taskUpdateRequest} with one targeted UPDATE, then reads
+     * the updated row back by primary key. With a non-null {@code expectedVersion} the update only
+     * applies if the task is still at that version.
+     *
+     * @throws TaskVersionMismatchException if the task exists at a different version
+     */
+    @Transactional
+    public TaskResponse updateTask(
+            Long id, TaskUpdateRequest taskUpdateRequest, Long expectedVersion) {
+        if (taskUpdateRequest.getStatus() != null && taskStatusCounters.isEnabled()) {
+            updateTrackingStatus(id, taskUpdateRequest, expectedVersion);
+        } else if (applyUpdate(id, taskUpdateRequest, expectedVersion) == 0) {
+            if (expectedVersion != null && taskRepository.existsById(id)) {
+                throw new TaskVersionMismatchException(id, expectedVersion);
+            }
             throw new RuntimeException("Task not found with id " + id);
         }
-        return modelMapper.map(task, TaskResponse.class);
+        taskCache.invalidate(id);
+        Task task = findTaskById(id);
+        taskSearchIndex.indexTask(task);
+        TaskResponse response = taskMapper.toTaskResponse(task);
+        taskEventLog.taskUpdated(response);
+        return response;
     }
 
-    public TaskResponse updateTask(Long id, TaskUpdateRequest taskUpdateRequest) {
-        Task task = findTaskById(id);
-        task =
-                Task.builder()
-                        .id(task.getId())
-                        .title(
-                                Optional.ofNullable(taskUpdateRequest.getTitle())
-                                        .orElse(task.getTitle()))
-                        .description(
-                                Optional.ofNullable(taskUpdateRequest.getDescription())
-                                        .orElse(task.getDescription()))
-                        .assigneeId(
-                                Optional.ofNullable(taskUpdateRequest.getAssigneeId())
-                                        .orElse(task.getAssigneeId()))
-                        .status(
-                                Optional.ofNullable(taskUpdateRequest.getStatus())
-                                        .orElse(task.getStatus()))
-                        .build();
-        task = taskRepository.save(task);
-        return modelMapper.map(task, TaskResponse.class);
+    /**
+     * Applies an update that changes the status while the counters are on. The update is made
+     * conditional on the version the previous status was read at, so the transition handed to the
+     * counters is exactly the one made; if another writer got in between, the task is re-read and
+     * the update retried up to {@value #MAX_UPDATE_ATTEMPTS} times.
+     */
+    private void updateTrackingStatus(
+            Long id, TaskUpdateRequest taskUpdateRequest, Long expectedVersion) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            TaskState current = findState(id);
+            if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+                throw new TaskVersionMismatchException(id, expectedVersion);
+            }
+            if (applyUpdate(id, taskUpdateRequest, current.getVersion()) == 1) {
+                taskStatusCounters.recordTransition(
+                        current.getStatus(), taskUpdateRequest.getStatus(), 1);
+                return;
+            }
+        }
+        throw concurrentlyModified(id);
+    }
+
+    private int applyUpdate(Long id, TaskUpdateRequest taskUpdateRequest, Long expectedVersion) {
+        return taskRepository.updateNonNullFields(
+                id,
+                taskUpdateRequest.getTitle(),
+                taskUpdateRequest.getDescription(),
+                taskUpdateRequest.getAssigneeId(),
+                taskUpdateRequest.getStatus(),
+                expectedVersion);
     }
 
     public void deleteTask(Long id) {
         Task task = findTaskById(id);
         taskRepository.delete(task);
+        taskCache.invalidate(id);
+        taskStatusCounters.recordDeleted(task.getStatus());
+        taskSearchIndex.removeTask(id);
+        commentWriteBehind.forgetTask(id);
+        taskEventLog.taskDeleted(id);
     }
 
     Task findTaskById(Long id) {
@@ -84,51 +200,280 @@ public class TaskService {
                 .orElseThrow(() -> new RuntimeException("Task not found with id " + id));
     }
 
+    /**
+     * Sets the status with one UPDATE. With {@code expectedStatus} set this is a compare-and-set
+     * that fails with {@link TaskConflictException} when the task is in another status.
+     */
+    @Transactional
     public TaskResponse updateTaskStatus(Long id, TaskStatusUpdateRequest request) {
-        Task task =
-                taskRepository
-                        .findById(id)
-                        .orElseThrow(() -> new RuntimeException("Task not found"));
-        task =
-                Task.builder()
-                        .id(task.getId())
-                        .title(task.getTitle())
-                        .description(task.getDescription())
-                        .assigneeId(task.getAssigneeId())
-                        .status(request.getStatus())
-                        .build();
-        task = taskRepository.save(task);
-        return modelMapper.map(task, TaskResponse.class);
-    }
-
-    public List<TaskResponse> getTasksByStatus(String status) {
-        List<Task> tasks = taskRepository.findByStatus(status);
-        return tasks.stream()
-                .map(task -> modelMapper.map(task, TaskResponse.class))
+        TaskStatus newStatus = request.getStatus();
+        TaskStatus expectedStatus = request.getExpectedStatus();
+        if (expectedStatus != null) {
+            if (taskRepository.updateStatusIfCurrent(id, expectedStatus, newStatus) == 0) {
+                throw new TaskConflictException(
+                        "Task "
+                                + id
+                                + " is in status "
+                                + findState(id).getStatus()
+                                + ", not "
+                                + expectedStatus);
+            }
+            taskStatusCounters.recordTransition(expectedStatus, newStatus, 1);
+        } else if (taskStatusCounters.isEnabled()) {
+            updateStatusTrackingPrevious(id, newStatus);
+        } else if (taskRepository.updateStatus(id, newStatus) == 0) {
+            throw new RuntimeException("Task not found");
+        }
+        taskCache.invalidate(id);
+        TaskResponse response = taskMapper.toTaskResponse(findTaskById(id));
+        taskEventLog.taskUpdated(response);
+        return response;
+    }
+
+    /** Current version of a task, from the cache when it holds the task. */
+    public Optional<Long> findTaskVersion(Long id) {
+        TaskResponse cached = taskCache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.ofNullable(cached.getVersion());
+        }
+        return taskRepository.findVersionById(id);
+    }
+
+    /**
+     * Ids and versions of the tasks {@link #filterTasks} would return, without loading or mapping
+     * the tasks themselves. Uses the same per-combination queries, and so the same indexes.
+     */
+    public List<TaskVersion> findTaskPageVersions(
+            TaskStatus status, Long assigneeId, Long after, int limit) {
+        Long cursor = Optional.ofNullable(after).orElse(0L);
+        PageRequest page = keysetPage(limit);
+        if (status != null && assigneeId != null) {
+            return taskRepository.findVersionsByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                    status, assigneeId, cursor, page);
+        } else if (status != null) {
+            return taskRepository.findVersionsByStatusAndIdGreaterThanOrderByIdAsc(
+                    status, cursor, page);
+        } else if (assigneeId != null) {
+            return taskRepository.findVersionsByAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                    assigneeId, cursor, page);
+        }
+        return taskRepository.findVersionsByIdGreaterThanOrderByIdAsc(cursor, page);
+    }
+
+    /** Number of comments of a task and the id of the newest one. */
+    public CommentListVersion findCommentListVersion(Long taskId) {
+        return commentRepository.findListVersionByTaskId(taskId);
+    }
+
+    /**
+     * Sets the status conditional on the status just read, so the counters record the transition
+     * actually made; retried like {@link #updateTrackingStatus}.
+     */
+    private void updateStatusTrackingPrevious(Long id, TaskStatus newStatus) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            TaskStatus previousStatus = findState(id).getStatus();
+            if (taskRepository.updateStatusIfCurrent(id, previousStatus, newStatus) == 1) {
+                taskStatusCounters.recordTransition(previousStatus, newStatus, 1);
+                return;
+            }
+        }
+        throw concurrentlyModified(id);
+    }
+
+    private TaskState findState(Long id) {
+        return taskRepository
+                .findStateById(id)
+                .orElseThrow(() -> new RuntimeException("Task not found with id " + id));
+    }
+
+    private static TaskConflictException concurrentlyModified(Long id) {
+        return new TaskConflictException(
+                "Task "
+                        + id
+                        + " kept changing concurrently; gave up after "
+                        + MAX_UPDATE_ATTEMPTS
+                        + " attempts");
+    }
+
+    /** Number of tasks per status, from the maintained counters when they are enabled. */
+    public List<StatusCountResponse> countTasksByStatus() {
+        if (taskStatusCounters.isEnabled()) {
+            return taskStatusCounters.getCounts().entrySet().stream()
+                    .map(entry -> new StatusCountResponse(entry.getKey(), entry.getValue()))
+                    .collect(Collectors.toList());
+        }
+        return taskRepository.countByStatus().stream()
+                .map(count -> new StatusCountResponse(count.getStatus(), count.getCount()))
                 .collect(Collectors.toList());
     }
 
-    public List<TaskResponse> getTasksByAssignee(Long assigneeId) {
-        List<Task> tasks = taskRepository.findByAssigneeId(assigneeId);
-        return tasks.stream()
-                .map(task -> modelMapper.map(task, TaskResponse.class))
+    /** Number of tasks per assignee, optionally restricted to one status. */
+    public List<AssigneeCountResponse> countTasksByAssignee(TaskStatus status) {
+        return taskRepository.countByAssignee(status).stream()
+                .map(count -> new AssigneeCountResponse(count.getAssigneeId(), count.getCount()))
                 .collect(Collectors.toList());
     }
 
+    public List<TaskResponse> getTasksByStatus(TaskStatus status, Long after, int limit) {
+        return filterTasks(status, null, after, limit);
+    }
+
+    public List<TaskResponse> getTasksByAssignee(Long assigneeId, Long after, int limit) {
+        return filterTasks(null, assigneeId, after, limit);
+    }
+
+    /**
+     * Keyset page of tasks matching the given status and/or assignee. Each combination maps to its
+     * own query so it can be served by the matching index on {@link Task}.
+     */
+    public List<TaskResponse> filterTasks(
+            TaskStatus status, Long assigneeId, Long after, int limit) {
+        Long cursor = Optional.ofNullable(after).orElse(0L);
+        PageRequest page = keysetPage(limit);
+        List<Task> tasks;
+        if (status != null && assigneeId != null) {
+            tasks =
+                    taskRepository.findByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                            status, assigneeId, cursor, page);
+        } else if (status != null) {
+            tasks = taskRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, cursor, page);
+        } else if (assigneeId != null) {
+            tasks =
+                    taskRepository.findByAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                            assigneeId, cursor, page);
+        } else {
+            tasks = taskRepository.findByIdGreaterThanOrderByIdAsc(cursor, page);
+        }
+        return tasks.stream().map(taskMapper::toTaskResponse).collect(Collectors.toList());
+    }
+
+    /**
+     * Tasks whose title, description or comments contain every term of {@code query}, best match
+     * first. Ranking happens in {@link TaskSearchIndex}; only the returned page is read from the
+     * database.
+     */
+    public TaskSearchResponse searchTasks(String query, int offset, int limit) {
+        SearchHits hits =
+                taskSearchIndex.search(query, Math.max(0, offset), keysetPage(limit).getPageSize());
+        Map<Long, Integer> rank = new HashMap<>();
+        hits.getTaskIds().forEach(taskId -> rank.put(taskId, rank.size()));
+        List<Task> tasks = new ArrayList<>(taskRepository.findAllById(hits.getTaskIds()));
+        tasks.sort(Comparator.comparingInt(task -> rank.get(task.getId())));
+        TaskSearchResponse response = new TaskSearchResponse();
+        response.setTotal(hits.getTotal());
+        response.setTasks(
+                tasks.stream().map(taskMapper::toTaskResponse).collect(Collectors.toList()));
+        return response;
+    }
+
+    /**
+     * Adds a comment, either in this transaction or through the write-behind queue; see {@link
+     * CommentWriteBehind}.
+     */
     public CommentResponse addCommentToTask(Long id, CommentRequest request) {
+        if (commentWriteBehind.isEnabled()) {
+            return commentWriteBehind.submit(id, request.getComment());
+        }
         Task task =
                 taskRepository
                         .findById(id)
                         .orElseThrow(() -> new RuntimeException("Task not found"));
         Comment comment = Comment.builder().task(task).comment(request.getComment()).build();
         comment = commentRepository.save(comment);
-        return modelMapper.map(comment, CommentResponse.class);
+        taskSearchIndex.indexComment(id, comment.getComment());
+        CommentResponse response = taskMapper.toCommentResponse(comment);
+        taskEventLog.commentAdded(id, response);
+        return response;
+    }
+
+    /** Whether added comments are only queued when the response is sent. */
+    public boolean isCommentWriteDeferred() {
+        return commentWriteBehind.getMode() == CommentWriteMode.FIRE_AND_FORGET;
     }
 
     public List<CommentResponse> getTaskComments(Long id) {
         List<Comment> comments = commentRepository.findByTaskId(id);
-        return comments.stream()
-                .map(comment -> modelMapper.map(comment, CommentResponse.class))
-                .collect(Collectors.toList());
+        return comments.stream().map(taskMapper::toCommentResponse).collect(Collectors.toList());
+    }
+
+    /**
+     * Newest-first page of a task's comments. {@code before} is the id of the last comment of the
+     * previous page ({@link CommentFeedResponse#getNextBefore()}); the page continues from that
+     * comment's position in (created, id) order.
+     *
+     * @throws InvalidCursorException if {@code before} is not a comment of the task
+     */
+    public CommentFeedResponse getCommentFeed(Long taskId, Long before, int limit) {
+        PageRequest page = keysetPage(limit);
+        List<Comment> comments;
+        if (before == null) {
+            comments = commentRepository.findNewestByTaskId(taskId, page);
+        } else {
+            Comment cursor =
+                    commentRepository
+                            .findById(before)
+                            .filter(comment -> taskId.equals(comment.getTask().getId()))
+                            .orElseThrow(
+                                    () ->
+                                            new InvalidCursorException(
+                                                    "before="
+                                                            + before
+                                                            + " is not a comment of task "
+                                                            + taskId));
+            comments =
+                    commentRepository.findNewestByTaskIdBefore(
+                            taskId, cursor.getCreatedAt(), cursor.getId(), page);
+        }
+        CommentFeedResponse response = new CommentFeedResponse();
+        response.setComments(
+                comments.stream().map(taskMapper::toCommentResponse).collect(Collectors.toList()));
+        if (comments.size() == page.getPageSize()) {
+            response.setNextBefore(comments.get(comments.size() - 1).getId());
+        }
+        return response;
+    }
+
+    /**
+     * The newest {@code limit} comments of each of several tasks, oldest first, fetched with one
+     * query and keyed by task id. Older comments are paged through with {@link #getCommentFeed}.
+     */
+    public Map<Long, List<CommentResponse>> getCommentsForTasks(
+            Collection<Long> taskIds, int limit) {
+        Map<Long, List<CommentResponse>> comments = new LinkedHashMap<>();
+        taskIds.forEach(taskId -> comments.put(taskId, new ArrayList<>()));
+        for (Comment comment :
+                commentRepository.findNewestByTaskIds(taskIds, keysetPage(limit).getPageSize())) {
+            comments.get(comment.getTask().getId()).add(taskMapper.toCommentResponse(comment));
+        }
+        return comments;
+    }
+
+    /**
+     * Sets the comment count and/or latest comment on each task of a listing, using one set-based
+     * query per requested summary regardless of the number of tasks.
+     */
+    public void addCommentSummaries(
+            List<TaskResponse> tasks, boolean commentCount, boolean latestComment) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<Long> taskIds = tasks.stream().map(TaskResponse::getId).collect(Collectors.toList());
+        if (commentCount) {
+            Map<Long, Long> counts =
+                    commentRepository.countByTaskIds(taskIds).stream()
+                            .collect(
+                                    Collectors.toMap(
+                                            CommentCount::getTaskId, CommentCount::getCount));
+            tasks.forEach(task -> task.setCommentCount(counts.getOrDefault(task.getId(), 0L)));
+        }
+        if (latestComment) {
+            Map<Long, CommentResponse> latest =
+                    commentRepository.findLatestByTaskIds(taskIds).stream()
+                            .collect(
+                                    Collectors.toMap(
+                                            comment -> comment.getTask().getId(),
+                                            taskMapper::toCommentResponse));
+            tasks.forEach(task -> task.setLatestComment(latest.get(task.getId())));
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.edstem.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The task was changed by someone else since the client read the version it sent in If-Match. */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class TaskVersionMismatchException extends RuntimeException {
+
+    public TaskVersionMismatchException(Long id, Long expectedVersion) {
+        super("Task " + id + " is no longer at version " + expectedVersion);
+    }
+}
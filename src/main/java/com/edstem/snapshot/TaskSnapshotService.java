@@ -0,0 +1,333 @@
+package com.edstem.snapshot;
+
+import com.edstem.contract.response.SnapshotResponse;
+import com.edstem.export.TaskExportReader;
+import com.edstem.export.TaskExportWriter;
+import com.edstem.export.TaskExporter;
+import com.edstem.model.TaskStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Snapshots of the task and comment tables in the {@link TaskExportWriter} format, so that a node
+ * can come back with its data without replaying inserts through the service layer.
+ *
+ * <p>A snapshot is written to a temporary file next to {@code app.snapshot.path}, forced to disk
+ * and atomically moved into place, so a crash never leaves a partial snapshot behind. With {@code
+ * app.snapshot.restore-on-startup} an existing snapshot is loaded into the (empty) tables with JDBC
+ * batch inserts before the rest of the application starts, so the search index and counters are
+ * built from the restored rows; the file is memory-mapped unless {@code app.snapshot.memory-map} is
+ * off. {@code app.snapshot.on-shutdown} writes a snapshot when the application stops.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class TaskSnapshotService {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_TASK =
+            "insert into task (id, title, description, assignee_id, status, version)"
+                    + " values (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COMMENT =
+            "insert into comment (id, task_id, comment, created_at) values (?, ?, ?, ?)";
+
+    /** Matches the allocationSize of the entities' id sequences. */
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private final TaskExporter taskExporter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String path;
+    private final boolean restoreOnStartup;
+    private final boolean onShutdown;
+    private final boolean memoryMap;
+
+    public TaskSnapshotService(
+            TaskExporter taskExporter,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.snapshot.path:}") String path,
+            @Value("${app.snapshot.restore-on-startup:false}") boolean restoreOnStartup,
+            @Value("${app.snapshot.on-shutdown:false}") boolean onShutdown,
+            @Value("${app.snapshot.memory-map:true}") boolean memoryMap) {
+        this.taskExporter = taskExporter;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.path = path;
+        this.restoreOnStartup = restoreOnStartup;
+        this.onShutdown = onShutdown;
+        this.memoryMap = memoryMap;
+    }
+
+    public boolean isConfigured() {
+        return !path.isEmpty();
+    }
+
+    @PostConstruct
+    void restoreOnStartup() throws IOException {
+        if (restoreOnStartup && isConfigured() && Files.exists(Paths.get(path))) {
+            restore(Paths.get(path));
+        }
+    }
+
+    @PreDestroy
+    void snapshotOnShutdown() throws IOException {
+        if (onShutdown && isConfigured()) {
+            snapshot();
+        }
+    }
+
+    /** Writes a snapshot to {@code app.snapshot.path}. */
+    public SnapshotResponse snapshot() throws IOException {
+        if (!isConfigured()) {
+            throw new IllegalStateException("app.snapshot.path is not set");
+        }
+        return snapshot(Paths.get(path));
+    }
+
+    SnapshotResponse snapshot(Path target) throws IOException {
+        long start = System.nanoTime();
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        TaskExportWriter writer;
+        try {
+            try (FileChannel channel =
+                    FileChannel.open(
+                            temporary,
+                            StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream out =
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                writer = taskExporter.export(out, true);
+                channel.force(true);
+            }
+            Files.move(
+                    temporary,
+                    target,
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        SnapshotResponse response =
+                response(target, writer.getTaskCount(), writer.getCommentCount(), start);
+        log.info(
+                "Wrote snapshot of {} tasks and {} comments ({} bytes) to {} in {} ms",
+                response.getTasks(),
+                response.getComments(),
+                response.getBytes(),
+                target,
+                response.getMillis());
+        return response;
+    }
+
+    /**
+     * Loads a snapshot into the task and comment tables, which must be empty, and moves the id
+     * sequences past the restored ids.
+     */
+    SnapshotResponse restore(Path source) throws IOException {
+        long start = System.nanoTime();
+        requireEmpty(source, "task", "tasks");
+        requireEmpty(source, "comment", "comments");
+        RestoreSink sink = new RestoreSink();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            InputStream in = open(channel);
+            transactionTemplate.executeWithoutResult(
+                    status -> {
+                        try {
+                            new TaskExportReader(in).read(sink);
+                            sink.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        restartSequence("task_seq", sink.maxTaskId);
+                        restartSequence("comment_seq", sink.maxCommentId);
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (sink.unknownStatuses > 0) {
+            log.warn(
+                    "Cleared the status of {} restored tasks whose status is not a task status",
+                    sink.unknownStatuses);
+        }
+        SnapshotResponse response = response(source, sink.tasks, sink.comments, start);
+        log.info(
+                "Restored {} tasks and {} comments from {} in {} ms",
+                response.getTasks(),
+                response.getComments(),
+                source,
+                response.getMillis());
+        return response;
+    }
+
+    private void requireEmpty(Path source, String table, String rows) {
+        Long existing = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException(
+                    "Refusing to restore " + source + " over " + existing + " existing " + rows);
+        }
+    }
+
+    /**
+     * Code of a status label. Snapshots written before statuses were codes hold free text, which is
+     * mapped as {@code V2__task_status_codes.sql} maps the old column, legacy labels included. Text
+     * that names no status becomes null and is counted and logged by the caller.
+     */
+    static Short statusCode(String label) {
+        if (label == null) {
+            return null;
+        }
+        try {
+            return TaskStatus.fromLabel(label).getCode();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private InputStream open(FileChannel channel) throws IOException {
+        if (memoryMap && channel.size() <= Integer.MAX_VALUE) {
+            return new ByteBufferInputStream(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        return new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+    }
+
+    /** Next value such that Hibernate's pooled optimizer hands out ids above {@code maxId}. */
+    private void restartSequence(String sequence, long maxId) {
+        jdbcTemplate.execute(
+                "alter sequence " + sequence + " restart with " + (maxId + SEQUENCE_INCREMENT));
+    }
+
+    private static SnapshotResponse response(Path path, long tasks, long comments, long start)
+            throws IOException {
+        SnapshotResponse response = new SnapshotResponse();
+        response.setPath(path.toString());
+        response.setTasks(tasks);
+        response.setComments(comments);
+        response.setBytes(Files.size(path));
+        response.setMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    /** Buffers decoded rows and inserts them in JDBC batches of {@link #BATCH_SIZE}. */
+    private final class RestoreSink implements TaskExportReader.Sink {
+        private final List<Object[]> taskRows = new ArrayList<>(BATCH_SIZE);
+        private final List<Object[]> commentRows = new ArrayList<>(BATCH_SIZE);
+        private long tasks;
+        private long comments;
+        private long maxTaskId;
+        private long maxCommentId;
+        private long unknownStatuses;
+
+        @Override
+        public void task(
+                long id,
+                String title,
+                String description,
+                Long assigneeId,
+                String status,
+                Long version) {
+            Short code = statusCode(status);
+            if (status != null && code == null) {
+                unknownStatuses++;
+            }
+            taskRows.add(new Object[] {id, title, description, assigneeId, code, version});
+            maxTaskId = Math.max(maxTaskId, id);
+            tasks++;
+            if (taskRows.size() == BATCH_SIZE) {
+                insert(INSERT_TASK, taskRows);
+            }
+        }
+
+        @Override
+        public void comment(long id, Long taskId, String comment, Instant createdAt) {
+            if (!taskRows.isEmpty()) {
+                insert(INSERT_TASK, taskRows);
+            }
+            commentRows.add(
+                    new Object[] {
+                        id,
+                        taskId,
+                        comment,
+                        createdAt == null ? null : createdAt.atOffset(ZoneOffset.UTC)
+                    });
+            maxCommentId = Math.max(maxCommentId, id);
+            comments++;
+            if (commentRows.size() == BATCH_SIZE) {
+                insert(INSERT_COMMENT, commentRows);
+            }
+        }
+
+        void flush() {
+            if (!taskRows.isEmpty()) {
+                insert(INSERT_TASK, taskRows);
+            }
+            if (!commentRows.isEmpty()) {
+                insert(INSERT_COMMENT, commentRows);
+            }
+        }
+
+        private void insert(String sql, List<Object[]> rows) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+
+    /** Reads a (memory-mapped) buffer without copying it onto the heap first. */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
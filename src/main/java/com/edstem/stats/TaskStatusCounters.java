@@ -0,0 +1,101 @@
+package com.edstem.stats;
+
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.StatusCount;
+import com.edstem.repository.TaskRepository;
+import com.edstem.support.TransactionCallbacks;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory task count per status, kept current by the write paths so that status dashboards do not
+ * have to scan the table. Enabled with {@code app.counters.enabled}; while disabled every {@code
+ * record*} call is a no-op and callers fall back to a GROUP BY query.
+ *
+ * <p>Deltas are applied after the writing transaction commits. The counts are reloaded from the
+ * database on first use and every {@code app.counters.resync-interval} to correct any drift from
+ * concurrent writers.
+ */
+@Component
+public class TaskStatusCounters {
+
+    private final TaskRepository taskRepository;
+    private final boolean enabled;
+    private final long resyncIntervalNanos;
+
+    private final Map<TaskStatus, Long> counts = new HashMap<>();
+    private long syncedAtNanos;
+    private boolean synced;
+
+    public TaskStatusCounters(
+            TaskRepository taskRepository,
+            @Value("${app.counters.enabled:false}") boolean enabled,
+            @Value("${app.counters.resync-interval:5m}") Duration resyncInterval) {
+        this.taskRepository = taskRepository;
+        this.enabled = enabled;
+        this.resyncIntervalNanos = resyncInterval.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordCreated(TaskStatus status) {
+        apply(() -> add(status, 1));
+    }
+
+    public void recordDeleted(TaskStatus status) {
+        apply(() -> add(status, -1));
+    }
+
+    public void recordTransition(TaskStatus from, TaskStatus to, long count) {
+        if (!Objects.equals(from, to)) {
+            apply(
+                    () -> {
+                        add(from, -count);
+                        add(to, count);
+                    });
+        }
+    }
+
+    /** Returns a snapshot of the count per status, reloading it first if it is due. */
+    public synchronized Map<TaskStatus, Long> getCounts() {
+        if (!synced || System.nanoTime() - syncedAtNanos > resyncIntervalNanos) {
+            resync();
+        }
+        return new HashMap<>(counts);
+    }
+
+    private void apply(Runnable change) {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(
+                    () -> {
+                        synchronized (this) {
+                            change.run();
+                        }
+                    });
+        }
+    }
+
+    private void add(TaskStatus status, long delta) {
+        long updated = counts.getOrDefault(status, 0L) + delta;
+        if (updated > 0) {
+            counts.put(status, updated);
+        } else {
+            counts.remove(status);
+        }
+    }
+
+    private void resync() {
+        counts.clear();
+        for (StatusCount statusCount : taskRepository.countByStatus()) {
+            counts.put(statusCount.getStatus(), statusCount.getCount());
+        }
+        syncedAtNanos = System.nanoTime();
+        synced = true;
+    }
+}
@@ -0,0 +1,41 @@
+package com.edstem.support;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Defers in-memory side effects of a write until its surrounding transaction has finished. */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    /** Runs {@code action} after the current transaction commits, or now if there is none. */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            action.run();
+                        }
+                    });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs {@code action} once the current transaction completes, whether it committed or rolled
+     * back. Does nothing when there is no transaction.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            action.run();
+                        }
+                    });
+        }
+    }
+}
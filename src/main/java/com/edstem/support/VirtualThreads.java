@@ -0,0 +1,43 @@
+package com.edstem.support;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual-thread executors when the runtime provides them (Java 21+). The code is compiled
+ * for Java 17, so the Java 21 API is reached reflectively.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /** An executor that starts a new virtual thread named {@code prefix<n>} for every task. */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException(
+                    "Virtual threads need Java 21 or later; running on Java "
+                            + Runtime.version().feature());
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder =
+                    builderType
+                            .getMethod("name", String.class, long.class)
+                            .invoke(builder, prefix, 0L);
+            ThreadFactory factory =
+                    (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newExecutor =
+                    Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Schema of the Task and Comment entities. Sequences step by the entities' allocationSize.
+create sequence task_seq start with 1 increment by 50;
+create sequence comment_seq start with 1 increment by 50;
+
+create table task (
+    id bigint not null,
+    title varchar(255),
+    description varchar(255),
+    assignee_id bigint,
+    status varchar(255),
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+create table comment (
+    id bigint not null,
+    task_id bigint,
+    comment varchar(255),
+    created_at timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_comment_task foreign key (task_id) references task (id)
+);
+
+create index idx_task_status on task (status, id);
+create index idx_task_assignee on task (assignee_id, id);
+create index idx_task_status_assignee on task (status, assignee_id, id);
+create index idx_comment_task_created on comment (task_id, created_at, id);
@@ -0,0 +1,45 @@
+-- Stores task status as the smallint code of com.edstem.model.TaskStatus instead of free text.
+-- task_status is the code table; its rows must match the enum.
+
+-- Text that names no status, even after folding the legacy labels below, stops the migration on
+-- ck_task_status_mapped before anything has changed; correct or clear those rows and run it again.
+alter table task add constraint ck_task_status_mapped check (
+    status is null
+    or replace(lower(trim(status)), '_', ' ')
+        in ('open', 'in progress', 'blocked', 'done', 'cancelled', 'pending', 'completed')
+);
+alter table task drop constraint ck_task_status_mapped;
+
+create table task_status (
+    code smallint not null,
+    name varchar(32) not null,
+    primary key (code),
+    constraint uk_task_status_name unique (name)
+);
+
+insert into task_status (code, name) values (1, 'open');
+insert into task_status (code, name) values (2, 'in progress');
+insert into task_status (code, name) values (3, 'blocked');
+insert into task_status (code, name) values (4, 'done');
+insert into task_status (code, name) values (5, 'cancelled');
+
+-- Existing text is matched case-insensitively, with the legacy labels 'pending' and 'completed'
+-- folded into 'open' and 'done', as TaskStatus.fromLabel does.
+alter table task add column status_code smallint;
+update task set status_code = (
+    select s.code from task_status s
+    where s.name = case lower(trim(task.status))
+        when 'pending' then 'open'
+        when 'completed' then 'done'
+        else replace(lower(trim(task.status)), '_', ' ')
+    end
+);
+
+drop index idx_task_status;
+drop index idx_task_status_assignee;
+alter table task drop column status;
+alter table task rename column status_code to status;
+alter table task add constraint fk_task_status foreign key (status) references task_status (code);
+
+create index idx_task_status on task (status, id);
+create index idx_task_status_assignee on task (status, assignee_id, id);
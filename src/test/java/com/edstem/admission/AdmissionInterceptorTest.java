@@ -0,0 +1,187 @@
+package com.edstem.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.edstem.admission.ClientRateLimiter.Budget;
+import com.edstem.controller.TaskController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+public class AdmissionInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private AdmissionInterceptor interceptor(
+            boolean rateLimit, int maxConcurrent, int maxConcurrentBulk) {
+        ClientRateLimiter rateLimiter =
+                new ClientRateLimiter(
+                        rateLimit,
+                        100,
+                        ClientRateLimiter.budgets(
+                                new Budget(2, 1), new Budget(1, 1), new Budget(1, 0.5)),
+                        () -> 0L);
+        return new AdmissionInterceptor(
+                rateLimiter,
+                meterRegistry,
+                new ClientIdentity("X-Client-Id"),
+                maxConcurrent,
+                maxConcurrentBulk);
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/tasks");
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    private double rejected(String traffic, String reason) {
+        return meterRegistry
+                .get("task.admission.rejected")
+                .tags("traffic", traffic, "reason", reason)
+                .counter()
+                .count();
+    }
+
+    @Test
+    void testExhaustedBudgetIsRejectedWithRetryAfter() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(true, 0, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("POST", "a"), response, handler("write")));
+        assertThrows(
+                RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("POST", "a"), response, handler("write")));
+
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejected("write", "rate_limit"));
+        assertTrue(interceptor.preHandle(request("POST", "b"), response, handler("write")));
+        assertTrue(interceptor.preHandle(request("GET", "a"), response, handler("read")));
+    }
+
+    @Test
+    void testAnnotatedHandlerDrawsOnItsClassBudget() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(true, 0, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("GET", null), response, handler("bulk")));
+        assertThrows(
+                RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("GET", null), response, handler("bulk")));
+
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejected("bulk", "rate_limit"));
+    }
+
+    @Test
+    void testCreatingTasksDrawsOnTheBulkBudgetAndSlots() throws Exception {
+        HandlerMethod createTasks =
+                new HandlerMethod(
+                        mock(TaskController.class),
+                        TaskController.class.getMethod(
+                                "createTasks", List.class, HttpServletRequest.class));
+        AdmissionInterceptor interceptor = interceptor(true, 0, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("POST", "a"), response, createTasks));
+        assertThrows(
+                RateLimitExceededException.class,
+                () -> interceptor.preHandle(request("POST", "a"), response, createTasks));
+        assertEquals(1, rejected("bulk", "rate_limit"));
+        assertTrue(interceptor.preHandle(request("POST", "a"), response, handler("write")));
+
+        AdmissionInterceptor capped = interceptor(false, 2, 1);
+        assertTrue(capped.preHandle(request("POST", null), response, createTasks));
+        assertThrows(
+                ServiceOverloadedException.class,
+                () -> capped.preHandle(request("POST", null), response, createTasks));
+        assertEquals(1, rejected("bulk", "overload"));
+    }
+
+    @Test
+    void testRequestsBeyondTheConcurrencyCapAreShedUntilOneCompletes() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(false, 1, 0);
+        MockHttpServletRequest first = request("GET", null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(first, response, handler("read")));
+        assertThrows(
+                ServiceOverloadedException.class,
+                () -> interceptor.preHandle(request("GET", null), response, handler("read")));
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejected("read", "overload"));
+
+        interceptor.afterCompletion(first, response, handler("read"), null);
+        assertTrue(interceptor.preHandle(request("GET", null), response, handler("read")));
+    }
+
+    @Test
+    void testBulkCapLeavesSlotsForOtherRequests() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(false, 2, 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("POST", null), response, handler("bulk")));
+        assertThrows(
+                ServiceOverloadedException.class,
+                () -> interceptor.preHandle(request("POST", null), response, handler("bulk")));
+        assertTrue(interceptor.preHandle(request("GET", null), response, handler("read")));
+        assertEquals(
+                2,
+                meterRegistry.get("task.admission.in_flight").tag("limit", "all").gauge().value());
+    }
+
+    @Test
+    void testAsyncDispatchKeepsItsSlotUntilCompletion() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(true, 1, 0);
+        MockHttpServletRequest request = request("GET", "a");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, handler("read")));
+        interceptor.afterConcurrentHandlingStarted(request, response, handler("read"));
+        assertTrue(interceptor.preHandle(request, response, handler("read")));
+        interceptor.afterCompletion(request, response, handler("read"), null);
+
+        assertTrue(interceptor.preHandle(request("GET", "a"), response, handler("read")));
+    }
+
+    @Test
+    void testSubscriptionsDoNotHoldSlots() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(false, 1, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request("GET", null), response, handler("subscribe")));
+        assertTrue(interceptor.preHandle(request("GET", null), response, handler("read")));
+    }
+
+    static class Endpoints {
+        public void read() {}
+
+        public void write() {}
+
+        @Traffic(TrafficClass.BULK)
+        public void bulk() {}
+
+        @Traffic(value = TrafficClass.READ, limitConcurrency = false)
+        public void subscribe() {}
+    }
+}
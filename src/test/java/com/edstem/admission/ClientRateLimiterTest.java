@@ -0,0 +1,90 @@
+package com.edstem.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edstem.admission.ClientRateLimiter.Budget;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private ClientRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void init() {
+        rateLimiter = limiter(true);
+    }
+
+    private ClientRateLimiter limiter(boolean enabled) {
+        return new ClientRateLimiter(
+                enabled,
+                100,
+                ClientRateLimiter.budgets(new Budget(3, 1), new Budget(1, 2), new Budget(1, 0.1)),
+                now::get);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void testAdmitsABurstThenRefillsAtTheSustainedRate() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.READ));
+        }
+        long wait = rateLimiter.tryAcquire("a", TrafficClass.READ);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+        advanceMillis(500);
+        assertEquals(
+                TimeUnit.MILLISECONDS.toNanos(500), rateLimiter.tryAcquire("a", TrafficClass.READ));
+        advanceMillis(500);
+        assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.READ));
+        assertTrue(rateLimiter.tryAcquire("a", TrafficClass.READ) > 0);
+    }
+
+    @Test
+    void testBudgetsAreSeparatePerClassAndClient() {
+        assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.BULK));
+        assertEquals(TimeUnit.SECONDS.toNanos(10), rateLimiter.tryAcquire("a", TrafficClass.BULK));
+
+        assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.WRITE));
+        assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.READ));
+        assertEquals(0, rateLimiter.tryAcquire("b", TrafficClass.BULK));
+    }
+
+    @Test
+    void testIdleBucketRefillsOnlyUpToItsCapacity() {
+        assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.WRITE));
+        advanceMillis(60_000);
+
+        assertEquals(0, rateLimiter.tryAcquire("a", TrafficClass.WRITE));
+        assertTrue(rateLimiter.tryAcquire("a", TrafficClass.WRITE) > 0);
+    }
+
+    @Test
+    void testDisabledLimiterAdmitsEverything() {
+        ClientRateLimiter disabled = limiter(false);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, disabled.tryAcquire("a", TrafficClass.BULK));
+        }
+    }
+
+    @Test
+    void testRejectsBudgetsThatCouldNeverAdmit() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        new ClientRateLimiter(
+                                true,
+                                100,
+                                ClientRateLimiter.budgets(
+                                        new Budget(3, 1), new Budget(1, 0), new Budget(1, 1)),
+                                now::get));
+    }
+}
@@ -0,0 +1,183 @@
+package com.edstem.benchmark;
+
+import com.edstem.Application;
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.BulkCreateResponse;
+import com.edstem.model.TaskStatus;
+import com.edstem.service.TaskBulkService;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of the HTTP API with platform request threads (Tomcat's default pool of 200) versus
+ * virtual threads: each invocation fires {@code clients} concurrent {@code GET /tasks/{id}}
+ * requests and waits for all of them. Every JDBC statement is delayed by {@code jdbcLatencyMillis}
+ * to stand in for a remote database, so requests spend most of their time blocked, as they do in
+ * production. Both modes share a connection pool of {@code poolSize}; in platform mode the worker
+ * pool caps concurrency first.
+ *
+ * <p>Run on Java 21; the virtual-thread mode fails to start on earlier runtimes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TaskApiConcurrencyBenchmark {
+
+    private static final int TASKS = 1000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"1000"})
+    public int clients;
+
+    @Param({"400"})
+    public int poolSize;
+
+    @Param({"10"})
+    public long jdbcLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private long firstId;
+
+    @Setup
+    public void setUp() {
+        context =
+                new SpringApplicationBuilder(Application.class)
+                        .logStartupInfo(false)
+                        .initializers(
+                                applicationContext ->
+                                        applicationContext
+                                                .getBeanFactory()
+                                                .addBeanPostProcessor(
+                                                        new SlowJdbc(jdbcLatencyMillis)))
+                        .run(
+                                "--server.port=0",
+                                "--spring.datasource.url=jdbc:h2:mem:concurrency;DB_CLOSE_DELAY=-1",
+                                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                                "--spring.datasource.hikari.connection-timeout=60000",
+                                "--logging.level.root=WARN",
+                                "--app.cache.tasks.max-size=0",
+                                "--app.threads.virtual.enabled=" + virtualThreads);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        List<TaskRequest> taskRequests = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            TaskRequest taskRequest = new TaskRequest();
+            taskRequest.setTitle("Task " + i);
+            taskRequest.setStatus(TaskStatus.OPEN);
+            taskRequests.add(taskRequest);
+        }
+        BulkCreateResponse created =
+                context.getBean(TaskBulkService.class).createTasks(taskRequests);
+        firstId = created.getChunks().get(0).getFirstId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int concurrentGetTask() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            long id = firstId + ThreadLocalRandom.current().nextInt(TASKS);
+            HttpRequest request =
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/" + id)).build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        if (ok != clients) {
+            throw new IllegalStateException((clients - ok) + " of " + clients + " requests failed");
+        }
+        return ok;
+    }
+
+    /** Wraps the DataSource so that every statement execution first sleeps for the latency. */
+    private static final class SlowJdbc implements BeanPostProcessor {
+
+        private final long latencyMillis;
+
+        private SlowJdbc(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource ? delayed(bean, DataSource.class) : bean;
+        }
+
+        private Object delayed(Object target, Class<?> type) {
+            InvocationHandler handler =
+                    (proxy, method, args) -> {
+                        if (target instanceof Statement && method.getName().startsWith("execute")) {
+                            Thread.sleep(latencyMillis);
+                        }
+                        Object result = invoke(target, method, args);
+                        if (result instanceof CallableStatement) {
+                            return delayed(result, CallableStatement.class);
+                        } else if (result instanceof PreparedStatement) {
+                            return delayed(result, PreparedStatement.class);
+                        } else if (result instanceof Statement) {
+                            return delayed(result, Statement.class);
+                        } else if (result instanceof Connection) {
+                            return delayed(result, Connection.class);
+                        }
+                        return result;
+                    };
+            return Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] {type}, handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
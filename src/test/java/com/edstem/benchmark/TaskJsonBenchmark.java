@@ -0,0 +1,72 @@
+package com.edstem.benchmark;
+
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.TaskStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/** Serialization cost of {@link TaskResponse} lists, as a JSON array and as NDJSON rows. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int tasks;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter taskWriter;
+    private List<TaskResponse> taskResponses;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        taskWriter = objectMapper.writerFor(TaskResponse.class);
+        taskResponses = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            TaskResponse taskResponse = new TaskResponse();
+            taskResponse.setId((long) i);
+            taskResponse.setTitle("Task " + i);
+            taskResponse.setDescription("Description of task " + i);
+            taskResponse.setAssigneeId((long) (i % 50));
+            taskResponse.setStatus(i % 2 == 0 ? TaskStatus.OPEN : TaskStatus.DONE);
+            taskResponses.add(taskResponse);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeArray() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(taskResponses);
+    }
+
+    @Benchmark
+    public int serializeNdjson() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (TaskResponse taskResponse : taskResponses) {
+            outputStream.write(taskWriter.writeValueAsBytes(taskResponse));
+            outputStream.write('\n');
+        }
+        return outputStream.size();
+    }
+}
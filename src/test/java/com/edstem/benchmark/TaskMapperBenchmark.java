@@ -0,0 +1,79 @@
+package com.edstem.benchmark;
+
+import com.edstem.Application;
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.mapper.DirectTaskMapper;
+import com.edstem.mapper.ModelMapperTaskMapper;
+import com.edstem.mapper.TaskMapper;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Compares the hand-written and reflective {@link TaskMapper} implementations. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    @Param({"direct", "modelmapper"})
+    public String mapper;
+
+    private TaskMapper taskMapper;
+    private Task task;
+    private TaskRequest taskRequest;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        taskMapper =
+                "direct".equals(mapper)
+                        ? new DirectTaskMapper()
+                        : new ModelMapperTaskMapper(new Application().modelMapper());
+        task =
+                Task.builder()
+                        .id(42L)
+                        .title("Prepare release notes")
+                        .description("Collect the merged changes since the last tag")
+                        .assigneeId(7L)
+                        .status(TaskStatus.IN_PROGRESS)
+                        .build();
+        taskRequest = new TaskRequest();
+        taskRequest.setTitle(task.getTitle());
+        taskRequest.setDescription(task.getDescription());
+        taskRequest.setAssigneeId(task.getAssigneeId());
+        taskRequest.setStatus(task.getStatus());
+        comment = Comment.builder().id(9L).task(task).comment("Draft is ready").build();
+    }
+
+    @Benchmark
+    public TaskResponse taskToResponse() {
+        return taskMapper.toTaskResponse(task);
+    }
+
+    @Benchmark
+    public Task requestToTask() {
+        return taskMapper.toTask(taskRequest);
+    }
+
+    @Benchmark
+    public CommentResponse commentToResponse() {
+        return taskMapper.toCommentResponse(comment);
+    }
+}
@@ -0,0 +1,131 @@
+package com.edstem.benchmark;
+
+import com.edstem.Application;
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.request.TaskStatusUpdateRequest;
+import com.edstem.contract.response.BulkCreateResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.TaskStatus;
+import com.edstem.service.TaskBulkService;
+import com.edstem.service.TaskService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * {@link TaskService} read and write paths against an embedded H2 database seeded with {@code
+ * tasks} rows. {@code cacheSize=0} measures single-task reads without the read-through cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final TaskStatus[] STATUSES = {
+        TaskStatus.OPEN, TaskStatus.IN_PROGRESS, TaskStatus.DONE
+    };
+
+    @Param({"1000", "100000"})
+    public int tasks;
+
+    @Param({"0", "10000"})
+    public long cacheSize;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private long firstId;
+    private long lastId;
+
+    @Setup
+    public void setUp() {
+        context =
+                new SpringApplicationBuilder(Application.class)
+                        .web(WebApplicationType.NONE)
+                        .logStartupInfo(false)
+                        .run(
+                                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                                "--logging.level.root=WARN",
+                                "--app.cache.tasks.max-size=" + cacheSize);
+        taskService = context.getBean(TaskService.class);
+
+        List<TaskRequest> taskRequests = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            taskRequests.add(taskRequest(i));
+        }
+        BulkCreateResponse created =
+                context.getBean(TaskBulkService.class).createTasks(taskRequests);
+        firstId = created.getChunks().get(0).getFirstId();
+        lastId = created.getChunks().get(created.getChunks().size() - 1).getLastId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaskResponse getTask() {
+        return taskService.getTask(randomId());
+    }
+
+    @Benchmark
+    public List<TaskResponse> getAllTasksPage() {
+        return taskService.getAllTasks(randomId(), TaskService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<TaskResponse> getTasksByStatusPage() {
+        return taskService.getTasksByStatus(
+                randomStatus(), randomId(), TaskService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TaskResponse updateTaskStatus() {
+        TaskStatusUpdateRequest request = new TaskStatusUpdateRequest();
+        request.setStatus(randomStatus());
+        return taskService.updateTaskStatus(randomId(), request);
+    }
+
+    @Benchmark
+    public List<TaskResponse> createTask() {
+        return taskService.createTasks(
+                Collections.singletonList(taskRequest(ThreadLocalRandom.current().nextInt(tasks))));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(firstId, lastId + 1);
+    }
+
+    private static TaskStatus randomStatus() {
+        return STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+    }
+
+    private static TaskRequest taskRequest(int i) {
+        TaskRequest taskRequest = new TaskRequest();
+        taskRequest.setTitle("Task " + i);
+        taskRequest.setDescription("Description of task " + i);
+        taskRequest.setAssigneeId((long) (i % 50));
+        taskRequest.setStatus(STATUSES[i % STATUSES.length]);
+        return taskRequest;
+    }
+}
@@ -0,0 +1,44 @@
+package com.edstem.config;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.threads.virtual.enabled=true")
+@EnabledIf("com.edstem.support.VirtualThreads#isSupported")
+public class VirtualThreadConfigTest {
+
+    @Autowired private ServletWebServerApplicationContext context;
+    @Autowired private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    void testTomcatRunsRequestsOnVirtualThreadExecutor() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+
+        assertSame(
+                virtualThreadExecutor,
+                webServer.getTomcat().getConnector().getProtocolHandler().getExecutor());
+    }
+
+    @Test
+    void testAsyncRequestWorkRunsOnVirtualThreads() throws Exception {
+        Thread thread = applicationTaskExecutor.submit(Thread::currentThread).get();
+
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+}
@@ -1,29 +1,68 @@
 package com.edstem.controller;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.edstem.contract.request.BulkStatusUpdateRequest;
 import com.edstem.contract.request.CommentRequest;
 import com.edstem.contract.request.TaskRequest;
 import com.edstem.contract.request.TaskStatusUpdateRequest;
 import com.edstem.contract.request.TaskUpdateRequest;
+import com.edstem.contract.response.AssigneeCountResponse;
+import com.edstem.contract.response.BulkChunkResponse;
+import com.edstem.contract.response.BulkCreateResponse;
+import com.edstem.contract.response.BulkStatusUpdateResponse;
+import com.edstem.contract.response.CacheStatsResponse;
+import com.edstem.contract.response.CommentFeedResponse;
 import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.StatusCountResponse;
+import com.edstem.contract.response.TaskImportResponse;
 import com.edstem.contract.response.TaskResponse;
+import com.edstem.contract.response.TaskSearchResponse;
+import com.edstem.export.TaskExporter;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentListVersion;
+import com.edstem.repository.TaskVersion;
+import com.edstem.service.InvalidCursorException;
+import com.edstem.service.TaskBulkService;
+import com.edstem.service.TaskConflictException;
 import com.edstem.service.TaskService;
+import com.edstem.service.TaskVersionMismatchException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -31,6 +70,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -40,6 +81,8 @@ public class TaskControllerTest {
 
     @MockBean private TaskService taskService;
 
+    @MockBean private TaskBulkService taskBulkService;
+
     @Test
     void testGetAllTasks() throws Exception {
         TaskResponse taskResponse = new TaskResponse();
@@ -47,8 +90,9 @@ public class TaskControllerTest {
         taskResponse.setTitle("Hello, Mock");
         taskResponse.setDescription("Task Description");
         taskResponse.setAssigneeId(123L);
-        taskResponse.setStatus("Task Status");
-        when(taskService.getAllTasks()).thenReturn(Arrays.asList(taskResponse));
+        taskResponse.setStatus(TaskStatus.IN_PROGRESS);
+        when(taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Arrays.asList(taskResponse));
 
         mockMvc.perform(get("/tasks"))
                 .andDo(print())
@@ -57,7 +101,111 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$[0].title", is("Hello, Mock")))
                 .andExpect(jsonPath("$[0].description", is("Task Description")))
                 .andExpect(jsonPath("$[0].assigneeId", is(123)))
-                .andExpect(jsonPath("$[0].status", is("Task Status")));
+                .andExpect(jsonPath("$[0].status", is("in progress")));
+    }
+
+    @Test
+    void testGetAllTasksAfterCursor() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(11L);
+        when(taskService.getAllTasks(10L, 5)).thenReturn(Arrays.asList(taskResponse));
+
+        mockMvc.perform(get("/tasks").param("after", "10").param("limit", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(11)));
+    }
+
+    @Test
+    void testNonPositiveLimitIsBadRequest() throws Exception {
+        for (String limit : new String[] {"0", "-1"}) {
+            mockMvc.perform(get("/tasks").param("limit", limit))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/tasks/1/comments/feed").param("limit", limit))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest());
+        }
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void testOversizedLimitIsCappedToTheMaximumPageSize() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(1L);
+        when(taskService.getAllTasks(null, TaskService.MAX_PAGE_SIZE))
+                .thenReturn(Arrays.asList(taskResponse));
+
+        mockMvc.perform(get("/tasks").param("limit", "5000"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+        verify(taskService).getAllTasks(null, TaskService.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void testGetAllTasksWithCommentSummaries() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(1L);
+        List<TaskResponse> tasks = Arrays.asList(taskResponse);
+        when(taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE)).thenReturn(tasks);
+        doAnswer(
+                        invocation -> {
+                            taskResponse.setCommentCount(3L);
+                            return null;
+                        })
+                .when(taskService)
+                .addCommentSummaries(tasks, true, false);
+
+        mockMvc.perform(get("/tasks").param("includeCommentCount", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].commentCount", is(3)));
+
+        verify(taskService).addCommentSummaries(tasks, true, false);
+    }
+
+    @Test
+    void testStreamAllTasks() throws Exception {
+        TaskResponse first = new TaskResponse();
+        first.setId(1L);
+        TaskResponse second = new TaskResponse();
+        second.setId(2L);
+        doAnswer(
+                        invocation -> {
+                            Consumer<TaskResponse> consumer = invocation.getArgument(0);
+                            consumer.accept(first);
+                            consumer.accept(second);
+                            return null;
+                        })
+                .when(taskService)
+                .streamAllTasks(any());
+
+        MvcResult result =
+                mockMvc.perform(get("/tasks/stream"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(startsWith("{\"id\":1,")))
+                .andExpect(content().string(containsString("}\n{\"id\":2,")))
+                .andExpect(content().string(endsWith("}\n")));
+    }
+
+    @Test
+    void testExportTasksStreamsBinaryExport() throws Exception {
+        MvcResult result =
+                mockMvc.perform(get("/tasks/export"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskExporter.MEDIA_TYPE))
+                .andExpect(content().bytes(new byte[] {'T', 'S', 'K', 'X', 2, 'E', 0, 0}));
     }
 
     @Test
@@ -67,7 +215,7 @@ public class TaskControllerTest {
         taskResponse.setTitle("Task Title");
         taskResponse.setDescription("Task Description");
         taskResponse.setAssigneeId(123L);
-        taskResponse.setStatus("Task Status");
+        taskResponse.setStatus(TaskStatus.IN_PROGRESS);
         when(taskService.createTasks(any())).thenReturn(Arrays.asList(taskResponse));
 
         mockMvc.perform(
@@ -83,7 +231,176 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$[0].title", is("Task Title")))
                 .andExpect(jsonPath("$[0].description", is("Task Description")))
                 .andExpect(jsonPath("$[0].assigneeId", is(123)))
-                .andExpect(jsonPath("$[0].status", is("Task Status")));
+                .andExpect(jsonPath("$[0].status", is("in progress")));
+    }
+
+    @Test
+    void testCreateTasksReplaysResponseForRepeatedIdempotencyKey() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(7L);
+        taskResponse.setTitle("Once");
+        List<TaskRequest> taskRequests = Arrays.asList(new TaskRequest());
+        when(taskService.createTasks(any())).thenReturn(Arrays.asList(taskResponse));
+        String body = new ObjectMapper().writeValueAsString(taskRequests);
+
+        mockMvc.perform(
+                        post("/tasks")
+                                .header("Idempotency-Key", "create-replay")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$[0].id", is(7)));
+        mockMvc.perform(
+                        post("/tasks")
+                                .header("Idempotency-Key", "create-replay")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$[0].id", is(7)));
+
+        verify(taskService, times(1)).createTasks(any());
+    }
+
+    @Test
+    void testCreateTasksWithReusedIdempotencyKeyAndDifferentBodyIsUnprocessable() throws Exception {
+        when(taskService.createTasks(any())).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(
+                        post("/tasks")
+                                .header("Idempotency-Key", "create-reused")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"title\":\"First\"}]"))
+                .andExpect(status().isOk());
+        mockMvc.perform(
+                        post("/tasks")
+                                .header("Idempotency-Key", "create-reused")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"title\":\"Second\"}]"))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(taskService, times(1)).createTasks(any());
+    }
+
+    @Test
+    void testIdempotencyKeysOfDifferentClientsDoNotCollide() throws Exception {
+        when(taskService.createTasks(any())).thenReturn(Collections.emptyList());
+
+        for (String client : new String[] {"client-a", "client-b"}) {
+            mockMvc.perform(
+                            post("/tasks")
+                                    .header("Idempotency-Key", "create-shared")
+                                    .header("X-Client-Id", client)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("[{\"title\":\"" + client + "\"}]"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        }
+
+        verify(taskService, times(2)).createTasks(any());
+    }
+
+    @Test
+    void testCreateTaskWithUnknownStatusIsBadRequest() throws Exception {
+        mockMvc.perform(
+                        post("/tasks")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"title\":\"Title\",\"status\":\"finished\"}]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void testCreateTasksInBulk() throws Exception {
+        BulkChunkResponse chunk = new BulkChunkResponse();
+        chunk.setSize(2);
+        chunk.setFirstId(1L);
+        chunk.setLastId(2L);
+        BulkCreateResponse bulkCreateResponse = new BulkCreateResponse();
+        bulkCreateResponse.setCreated(2);
+        bulkCreateResponse.getChunks().add(chunk);
+        when(taskBulkService.createTasks(any())).thenReturn(bulkCreateResponse);
+
+        mockMvc.perform(
+                        post("/tasks/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        new ObjectMapper()
+                                                .writeValueAsString(
+                                                        Arrays.asList(
+                                                                new TaskRequest(),
+                                                                new TaskRequest()))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.chunks[0].firstId", is(1)))
+                .andExpect(jsonPath("$.chunks[0].lastId", is(2)));
+    }
+
+    @Test
+    void testImportTasks() throws Exception {
+        TaskImportResponse taskImportResponse = new TaskImportResponse();
+        taskImportResponse.setReceived(2);
+        taskImportResponse.setImported(2);
+        taskImportResponse.setFirstId(1L);
+        taskImportResponse.setLastId(2L);
+        when(taskBulkService.importTasks(any())).thenReturn(taskImportResponse);
+
+        mockMvc.perform(
+                        post("/tasks/import")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"title\":\"one\"}\n{\"title\":\"two\"}\n"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(0)))
+                .andExpect(jsonPath("$.lastId", is(2)));
+    }
+
+    @Test
+    void testCountTasksByStatus() throws Exception {
+        when(taskService.countTasksByStatus())
+                .thenReturn(Arrays.asList(new StatusCountResponse(TaskStatus.OPEN, 4)));
+
+        mockMvc.perform(get("/tasks/counts/status"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("open")))
+                .andExpect(jsonPath("$[0].count", is(4)));
+    }
+
+    @Test
+    void testCountTasksByAssignee() throws Exception {
+        when(taskService.countTasksByAssignee(TaskStatus.OPEN))
+                .thenReturn(Arrays.asList(new AssigneeCountResponse(123L, 2)));
+
+        mockMvc.perform(get("/tasks/counts/assignee").param("status", "open"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].assigneeId", is(123)))
+                .andExpect(jsonPath("$[0].count", is(2)));
+    }
+
+    @Test
+    void testGetTaskCacheStats() throws Exception {
+        CacheStatsResponse cacheStatsResponse = new CacheStatsResponse();
+        cacheStatsResponse.setSize(1);
+        cacheStatsResponse.setHits(3);
+        cacheStatsResponse.setMisses(1);
+        cacheStatsResponse.setHitRate(0.75);
+        when(taskService.getTaskCacheStats()).thenReturn(cacheStatsResponse);
+
+        mockMvc.perform(get("/tasks/cache/stats"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is(3)))
+                .andExpect(jsonPath("$.hitRate", is(0.75)));
     }
 
     @Test
@@ -105,7 +422,8 @@ public class TaskControllerTest {
         TaskRequest taskRequest = new TaskRequest();
         TaskResponse taskResponse = new TaskResponse();
         taskResponse.setId(id);
-        when(taskService.updateTask(eq(id), any(TaskUpdateRequest.class))).thenReturn(taskResponse);
+        when(taskService.updateTask(eq(id), any(TaskUpdateRequest.class), isNull()))
+                .thenReturn(taskResponse);
 
         mockMvc.perform(
                         put("/tasks/" + id)
@@ -129,7 +447,7 @@ public class TaskControllerTest {
         Long id = 1L;
         TaskResponse taskResponse = new TaskResponse();
         taskResponse.setId(id);
-        taskResponse.setStatus("Updated Status");
+        taskResponse.setStatus(TaskStatus.DONE);
         when(taskService.updateTaskStatus(eq(id), any())).thenReturn(taskResponse);
 
         mockMvc.perform(
@@ -141,20 +459,79 @@ public class TaskControllerTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.status", is("Updated Status")));
+                .andExpect(jsonPath("$.status", is("done")));
+    }
+
+    @Test
+    void testUpdateTaskStatuses() throws Exception {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setIds(Arrays.asList(1L, 2L));
+        request.setStatus(TaskStatus.DONE);
+        BulkStatusUpdateResponse response = new BulkStatusUpdateResponse();
+        response.setStatus(TaskStatus.DONE);
+        response.setUpdated(1);
+        response.getUpdatedIds().add(1L);
+        response.getNotFoundIds().add(2L);
+        when(taskBulkService.updateStatuses(any())).thenReturn(response);
+
+        mockMvc.perform(
+                        patch("/tasks/status")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(request)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(1)))
+                .andExpect(jsonPath("$.updatedIds[0]", is(1)))
+                .andExpect(jsonPath("$.notFoundIds[0]", is(2)));
+    }
+
+    @Test
+    void testUpdateTaskStatusesRequiresSelection() throws Exception {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setStatus(TaskStatus.DONE);
+
+        mockMvc.perform(
+                        patch("/tasks/status")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(new ObjectMapper().writeValueAsString(request)))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void testGetTasksByStatus() throws Exception {
-        String status = "Task Status";
         TaskResponse taskResponse = new TaskResponse();
-        taskResponse.setStatus(status);
-        when(taskService.getTasksByStatus(status)).thenReturn(Arrays.asList(taskResponse));
+        taskResponse.setStatus(TaskStatus.IN_PROGRESS);
+        when(taskService.getTasksByStatus(
+                        TaskStatus.IN_PROGRESS, null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Arrays.asList(taskResponse));
 
-        mockMvc.perform(get("/tasks/status/" + status))
+        mockMvc.perform(get("/tasks/status/{status}", "in progress"))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].status", is(status)));
+                .andExpect(jsonPath("$[0].status", is("in progress")));
+    }
+
+    @Test
+    void testGetTasksByLegacyStatusLabel() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setStatus(TaskStatus.OPEN);
+        when(taskService.getTasksByStatus(TaskStatus.OPEN, null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Arrays.asList(taskResponse));
+
+        mockMvc.perform(get("/tasks/status/{status}", "Pending"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("open")));
+    }
+
+    @Test
+    void testGetTasksByUnknownStatusIsBadRequest() throws Exception {
+        mockMvc.perform(get("/tasks/status/{status}", "finished"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskService);
     }
 
     @Test
@@ -162,7 +539,8 @@ public class TaskControllerTest {
         Long assigneeId = 123L;
         TaskResponse taskResponse = new TaskResponse();
         taskResponse.setAssigneeId(assigneeId);
-        when(taskService.getTasksByAssignee(assigneeId)).thenReturn(Arrays.asList(taskResponse));
+        when(taskService.getTasksByAssignee(assigneeId, null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Arrays.asList(taskResponse));
 
         mockMvc.perform(get("/tasks/assignee/" + assigneeId))
                 .andDo(print())
@@ -170,6 +548,26 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$[0].assigneeId", equalTo(assigneeId.intValue())));
     }
 
+    @Test
+    void testFilterTasks() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(8L);
+        taskResponse.setStatus(TaskStatus.OPEN);
+        taskResponse.setAssigneeId(2L);
+        when(taskService.filterTasks(TaskStatus.OPEN, 2L, 7L, 20))
+                .thenReturn(Arrays.asList(taskResponse));
+
+        mockMvc.perform(
+                        get("/tasks/filter")
+                                .param("status", "open")
+                                .param("assigneeId", "2")
+                                .param("after", "7")
+                                .param("limit", "20"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(8)));
+    }
+
     @Test
     void testAddCommentToTask() throws Exception {
         Long id = 1L;
@@ -188,6 +586,44 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.comment", is("Test comment")));
     }
 
+    @Test
+    void testAddCommentToTaskReplaysResponseForRepeatedIdempotencyKey() throws Exception {
+        CommentResponse commentResponse = new CommentResponse();
+        commentResponse.setComment("Once");
+        when(taskService.addCommentToTask(eq(3L), any())).thenReturn(commentResponse);
+        String body = new ObjectMapper().writeValueAsString(new CommentRequest());
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(
+                            post("/tasks/3/comments")
+                                    .header("Idempotency-Key", "comment-replay")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.comment", is("Once")));
+        }
+
+        verify(taskService, times(1)).addCommentToTask(eq(3L), any());
+    }
+
+    @Test
+    void testGetCommentsForTasks() throws Exception {
+        CommentResponse commentResponse = new CommentResponse();
+        commentResponse.setComment("Test comment");
+        Map<Long, List<CommentResponse>> comments = new LinkedHashMap<>();
+        comments.put(1L, Arrays.asList(commentResponse));
+        comments.put(2L, Collections.emptyList());
+        when(taskService.getCommentsForTasks(new HashSet<>(Arrays.asList(1L, 2L)), 100))
+                .thenReturn(comments);
+
+        mockMvc.perform(get("/tasks/comments").param("taskIds", "1,2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.1[0].comment", is("Test comment")))
+                .andExpect(jsonPath("$.2.length()", is(0)));
+    }
+
     @Test
     void testGetTaskComments() throws Exception {
         Long id = 1L;
@@ -200,4 +636,172 @@ public class TaskControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].comment", is("Test comment")));
     }
+
+    @Test
+    void testGetCommentFeed() throws Exception {
+        CommentResponse commentResponse = new CommentResponse();
+        commentResponse.setId(6L);
+        commentResponse.setComment("Test comment");
+        CommentFeedResponse feed = new CommentFeedResponse();
+        feed.setComments(Arrays.asList(commentResponse));
+        feed.setNextBefore(6L);
+        when(taskService.getCommentFeed(1L, 7L, 1)).thenReturn(feed);
+
+        mockMvc.perform(get("/tasks/1/comments/feed").param("before", "7").param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[0].id", is(6)))
+                .andExpect(jsonPath("$.nextBefore", is(6)));
+    }
+
+    @Test
+    void testGetCommentFeedWithInvalidCursorIsBadRequest() throws Exception {
+        when(taskService.getCommentFeed(1L, 8L, 100))
+                .thenThrow(new InvalidCursorException("before=8 is not a comment of task 1"));
+
+        mockMvc.perform(get("/tasks/1/comments/feed").param("before", "8"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchTasks() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(2L);
+        TaskSearchResponse response = new TaskSearchResponse();
+        response.setTotal(7);
+        response.setTasks(Arrays.asList(taskResponse));
+        when(taskService.searchTasks("login crash", 5, 1)).thenReturn(response);
+
+        mockMvc.perform(
+                        get("/tasks/search")
+                                .param("q", "login crash")
+                                .param("offset", "5")
+                                .param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(7)))
+                .andExpect(jsonPath("$.tasks[0].id", is(2)));
+    }
+
+    @Test
+    void testSearchTasksRejectsBlankQuery() throws Exception {
+        mockMvc.perform(get("/tasks/search").param("q", " "))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamTaskEventsResumesFromLastEventIdHeader() throws Exception {
+        when(taskService.subscribeToEvents("boot-7")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/tasks/events").header("Last-Event-ID", "boot-7"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(taskService).subscribeToEvents("boot-7");
+    }
+
+    @Test
+    void testGetTaskReturnsVersionETag() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(1L);
+        taskResponse.setVersion(3L);
+        when(taskService.getTask(1L)).thenReturn(taskResponse);
+
+        mockMvc.perform(get("/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    @Test
+    void testGetTaskNotModifiedSkipsLoadingTask() throws Exception {
+        when(taskService.findTaskVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/tasks/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        verify(taskService, never()).getTask(1L);
+    }
+
+    @Test
+    void testUpdateTaskPassesIfMatchVersion() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setVersion(4L);
+        when(taskService.updateTask(eq(1L), any(TaskUpdateRequest.class), eq(3L)))
+                .thenReturn(taskResponse);
+
+        mockMvc.perform(
+                        put("/tasks/1")
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"title\":\"New title\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void testUpdateTaskWithStaleIfMatchIsPreconditionFailed() throws Exception {
+        when(taskService.updateTask(eq(1L), any(TaskUpdateRequest.class), eq(3L)))
+                .thenThrow(new TaskVersionMismatchException(1L, 3L));
+
+        mockMvc.perform(
+                        put("/tasks/1")
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"title\":\"New title\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateTaskStatusFromUnexpectedStatusIsConflict() throws Exception {
+        when(taskService.updateTaskStatus(eq(1L), any()))
+                .thenThrow(new TaskConflictException("Task 1 is in status done, not open"));
+
+        mockMvc.perform(
+                        patch("/tasks/1/status")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"expectedStatus\":\"open\",\"status\":\"done\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testGetAllTasksNotModifiedSkipsLoadingPage() throws Exception {
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(1L);
+        taskResponse.setVersion(2L);
+        when(taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Arrays.asList(taskResponse));
+        String etag =
+                mockMvc.perform(get("/tasks"))
+                        .andExpect(status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getHeader("ETag");
+        TaskVersion version = mock(TaskVersion.class);
+        when(version.getId()).thenReturn(1L);
+        when(version.getVersion()).thenReturn(2L);
+        when(taskService.findTaskPageVersions(null, null, null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Arrays.asList(version));
+
+        mockMvc.perform(get("/tasks").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        verify(taskService).getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    void testGetTaskCommentsNotModified() throws Exception {
+        CommentListVersion version = mock(CommentListVersion.class);
+        when(version.getCount()).thenReturn(2L);
+        when(version.getLatestId()).thenReturn(9L);
+        when(taskService.findCommentListVersion(1L)).thenReturn(version);
+
+        mockMvc.perform(get("/tasks/1/comments").header("If-None-Match", "\"c2-9\""))
+                .andExpect(status().isNotModified());
+
+        verify(taskService, never()).getTaskComments(1L);
+    }
 }
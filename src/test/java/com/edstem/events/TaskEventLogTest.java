@@ -0,0 +1,210 @@
+package com.edstem.events;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edstem.contract.response.TaskResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class TaskEventLogTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    private TaskEventLog taskEventLog;
+
+    @BeforeEach
+    public void init() {
+        taskEventLog =
+                new TaskEventLog(
+                        new ObjectMapper(),
+                        2,
+                        10,
+                        Duration.ofMinutes(1),
+                        Runnable::run,
+                        Runnable::run);
+    }
+
+    private static TaskResponse task(long id) {
+        TaskResponse task = new TaskResponse();
+        task.setId(id);
+        return task;
+    }
+
+    private static String lastEventId(RecordingEmitter emitter) {
+        Matcher matcher = EVENT_ID.matcher(emitter.received.get(emitter.received.size() - 1));
+        matcher.find();
+        return matcher.group(1);
+    }
+
+    @Test
+    void testSubscriberReceivesOnlyEventsPublishedAfterSubscribing() {
+        taskEventLog.taskCreated(task(1L));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        taskEventLog.subscribe(emitter, null);
+        taskEventLog.taskUpdated(task(2L));
+        taskEventLog.taskDeleted(3L);
+
+        assertEquals(2, emitter.received.size());
+        assertThat(emitter.received.get(0), containsString("\"type\":\"UPDATED\""));
+        assertThat(emitter.received.get(0), containsString("\"taskId\":2"));
+        assertThat(emitter.received.get(1), containsString("\"type\":\"DELETED\""));
+    }
+
+    @Test
+    void testReconnectReplaysMissedEvents() {
+        RecordingEmitter first = new RecordingEmitter();
+        taskEventLog.subscribe(first, null);
+        taskEventLog.taskCreated(task(1L));
+        String lastEventId = lastEventId(first);
+        first.complete();
+        taskEventLog.taskDeleted(1L);
+
+        RecordingEmitter second = new RecordingEmitter();
+        taskEventLog.subscribe(second, lastEventId);
+
+        assertEquals(1, second.received.size());
+        assertThat(second.received.get(0), containsString("\"type\":\"DELETED\""));
+    }
+
+    @Test
+    void testReconnectBeyondRetainedEventsGetsReset() {
+        RecordingEmitter first = new RecordingEmitter();
+        taskEventLog.subscribe(first, null);
+        taskEventLog.taskCreated(task(1L));
+        String lastEventId = lastEventId(first);
+        taskEventLog.taskCreated(task(2L));
+        taskEventLog.taskCreated(task(3L));
+        taskEventLog.taskCreated(task(4L));
+
+        RecordingEmitter second = new RecordingEmitter();
+        taskEventLog.subscribe(second, lastEventId);
+        taskEventLog.taskDeleted(4L);
+
+        assertEquals(2, second.received.size());
+        assertThat(second.received.get(0), containsString("\"type\":\"RESET\""));
+        assertThat(second.received.get(1), containsString("\"type\":\"DELETED\""));
+    }
+
+    @Test
+    void testEventIdFromAnotherProcessGetsReset() {
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        taskEventLog.subscribe(emitter, "previous-42");
+
+        assertEquals(1, emitter.received.size());
+        assertThat(emitter.received.get(0), containsString("\"type\":\"RESET\""));
+    }
+
+    @Test
+    void testBlockedSubscriberDoesNotStallOthers() throws Exception {
+        ExecutorService senders = Executors.newCachedThreadPool();
+        taskEventLog =
+                new TaskEventLog(
+                        new ObjectMapper(), 100, 2, Duration.ofMinutes(1), Runnable::run, senders);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter blocked = new BlockingEmitter(release);
+        RecordingEmitter other = new RecordingEmitter();
+        taskEventLog.subscribe(blocked, null);
+        taskEventLog.subscribe(other, null);
+        try {
+            for (int id = 1; id <= 10; id++) {
+                taskEventLog.taskCreated(task(id));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (other.received.size() < id && System.nanoTime() < deadline) {
+                    Thread.sleep(10);
+                }
+                assertEquals(id, other.received.size());
+            }
+            assertThat(other.received.get(9), containsString("\"taskId\":10"));
+            assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+            assertEquals(0, blocked.received.size());
+        } finally {
+            release.countDown();
+            senders.shutdown();
+        }
+        assertTrue(senders.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, blocked.received.size());
+        assertTrue(blocked.completed);
+    }
+
+    @Test
+    void testSubscriberIsCompletedWhenAllSendersAreBusy() throws Exception {
+        ThreadPoolExecutor senders =
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        taskEventLog =
+                new TaskEventLog(
+                        new ObjectMapper(), 100, 2, Duration.ofMinutes(1), Runnable::run, senders);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingEmitter blocked = new BlockingEmitter(release);
+        RecordingEmitter starved = new RecordingEmitter();
+        taskEventLog.subscribe(blocked, null);
+        taskEventLog.subscribe(starved, null);
+        try {
+            taskEventLog.taskCreated(task(1L));
+            assertTrue(blocked.sending.await(5, TimeUnit.SECONDS));
+            taskEventLog.taskCreated(task(2L));
+
+            assertTrue(starved.completed);
+            assertEquals(0, starved.received.size());
+            assertEquals(1, senders.getPoolSize());
+        } finally {
+            release.countDown();
+            senders.shutdown();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        volatile boolean completed;
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            received.add(event.toString());
+        }
+    }
+
+    private static final class BlockingEmitter extends RecordingEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private BlockingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.send(builder);
+        }
+    }
+}
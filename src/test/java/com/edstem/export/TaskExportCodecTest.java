@@ -0,0 +1,116 @@
+package com.edstem.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TaskExportCodecTest {
+
+    private static List<String> read(byte[] export) throws IOException {
+        List<String> records = new ArrayList<>();
+        new TaskExportReader(new ByteArrayInputStream(export))
+                .read(
+                        new TaskExportReader.Sink() {
+                            @Override
+                            public void task(
+                                    long id,
+                                    String title,
+                                    String description,
+                                    Long assigneeId,
+                                    String status,
+                                    Long version) {
+                                records.add(
+                                        "task "
+                                                + Arrays.asList(
+                                                        id,
+                                                        title,
+                                                        description,
+                                                        assigneeId,
+                                                        status,
+                                                        version));
+                            }
+
+                            @Override
+                            public void comment(
+                                    long id, Long taskId, String comment, Instant createdAt) {
+                                records.add(
+                                        "comment " + Arrays.asList(id, taskId, comment, createdAt));
+                            }
+                        });
+        return records;
+    }
+
+    @Test
+    void testRoundTripsTasksAndComments() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskExportWriter writer = new TaskExportWriter(bytes);
+        writer.writeTask(3, "Write report", "Quarterly numbers", 7L, "open", 0L);
+        writer.writeTask(90000, "Ünïcode ✓", null, -2L, "done", 12L);
+        writer.writeTask(90001, null, "", null, null, null);
+        writer.writeTask(90002, "Again", null, 7L, "open", 1L);
+        Instant createdAt = Instant.parse("2024-05-01T10:15:30.123456Z");
+        writer.writeComment(51, 3L, "Looks good", createdAt);
+        writer.writeComment(52, 90000L, null, null);
+        writer.writeComment(53, null, "Orphan", null);
+        writer.finish();
+
+        List<String> records = read(bytes.toByteArray());
+
+        assertEquals(
+                Arrays.asList(
+                        "task [3, Write report, Quarterly numbers, 7, open, 0]",
+                        "task [90000, Ünïcode ✓, null, -2, done, 12]",
+                        "task [90001, null, , null, null, null]",
+                        "task [90002, Again, null, 7, open, 1]",
+                        "comment [51, 3, Looks good, 2024-05-01T10:15:30.123456Z]",
+                        "comment [52, 90000, null, null]",
+                        "comment [53, null, Orphan, null]"),
+                records);
+        assertEquals(4, writer.getTaskCount());
+        assertEquals(3, writer.getCommentCount());
+    }
+
+    @Test
+    void testReadsVersionOneCommentTaskIds() throws IOException {
+        byte[] export = {
+            'T', 'S', 'K', 'X', TaskExportWriter.VERSION_PLAIN_COMMENT_TASK_ID,
+            'C', 51, 3, 0, 0,
+            'E', 0, 1
+        };
+
+        assertEquals(Arrays.asList("comment [51, 3, null, null]"), read(export));
+    }
+
+    @Test
+    void testRepeatedStatusIsStoredOnce() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskExportWriter writer = new TaskExportWriter(bytes);
+        writer.writeTask(1, null, null, null, "in progress", 0L);
+        int afterFirst = bytes.size();
+        writer.writeTask(2, null, null, null, "in progress", 0L);
+
+        // tag, id delta, title, description, assignee, status code, version: one byte each
+        assertEquals(7, bytes.size() - afterFirst);
+    }
+
+    @Test
+    void testTruncatedExportIsRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskExportWriter writer = new TaskExportWriter(bytes);
+        writer.writeTask(1, "Title", null, null, "open", 0L);
+        writer.finish();
+        byte[] export = bytes.toByteArray();
+
+        assertThrows(EOFException.class, () -> read(Arrays.copyOf(export, export.length - 3)));
+        assertThrows(IOException.class, () -> read("not an export".getBytes()));
+    }
+}
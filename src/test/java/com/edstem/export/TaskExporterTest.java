@@ -0,0 +1,85 @@
+package com.edstem.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@Import(TaskExporter.class)
+public class TaskExporterTest {
+
+    @Autowired private TaskExporter taskExporter;
+
+    @Autowired private TaskRepository taskRepository;
+
+    @Autowired private CommentRepository commentRepository;
+
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    void testExportsTasksAndOptionallyComments() throws IOException {
+        Task first =
+                taskRepository.save(Task.builder().title("First").status(TaskStatus.OPEN).build());
+        taskRepository.save(
+                Task.builder().title("Second").assigneeId(4L).status(TaskStatus.OPEN).build());
+        commentRepository.save(Comment.builder().task(first).comment("Note").build());
+        commentRepository.save(Comment.builder().comment("Orphan").build());
+        entityManager.flush();
+
+        List<String> withoutComments = new ArrayList<>();
+        List<String> withComments = new ArrayList<>();
+        read(export(false), withoutComments);
+        read(export(true), withComments);
+
+        assertEquals(2, withoutComments.size());
+        assertEquals("First open 0", withoutComments.get(0));
+        assertEquals("Second open 0", withoutComments.get(1));
+        assertEquals(4, withComments.size());
+        assertEquals("Note on " + first.getId(), withComments.get(2));
+        assertEquals("Orphan on null", withComments.get(3));
+    }
+
+    private byte[] export(boolean includeComments) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        taskExporter.export(out, includeComments);
+        return out.toByteArray();
+    }
+
+    private static void read(byte[] export, List<String> records) throws IOException {
+        new TaskExportReader(new ByteArrayInputStream(export))
+                .read(
+                        new TaskExportReader.Sink() {
+                            @Override
+                            public void task(
+                                    long id,
+                                    String title,
+                                    String description,
+                                    Long assigneeId,
+                                    String status,
+                                    Long version) {
+                                records.add(title + " " + status + " " + version);
+                            }
+
+                            @Override
+                            public void comment(
+                                    long id, Long taskId, String comment, Instant createdAt) {
+                                records.add(comment + " on " + taskId);
+                            }
+                        });
+    }
+}
@@ -0,0 +1,366 @@
+package com.edstem.idempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edstem.admission.ClientIdentity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+public class IdempotentRequestsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger runs = new AtomicInteger();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private IdempotentRequests idempotentRequests = requests(100, Duration.ofSeconds(5));
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private IdempotentRequests requests(long maxKeys, Duration waitTimeout) {
+        return new IdempotentRequests(
+                objectMapper,
+                new ClientIdentity("X-Client-Id"),
+                maxKeys,
+                Duration.ofHours(1),
+                waitTimeout);
+    }
+
+    private static MockHttpServletRequest request(String key) {
+        return request(key, "client");
+    }
+
+    private static MockHttpServletRequest request(String key, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/tasks");
+        if (key != null) {
+            request.addHeader(IdempotentRequests.HEADER, key);
+        }
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+
+    private Supplier<ResponseEntity<String>> created(String body) {
+        return () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).header("X-Test", "1").body(body);
+        };
+    }
+
+    @Test
+    void testRepeatedKeyReplaysTheFirstResponse() {
+        ResponseEntity<String> first =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("first"));
+        ResponseEntity<String> second =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("second"));
+
+        assertEquals(1, runs.get());
+        assertNull(first.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("first", second.getBody());
+        assertEquals("1", second.getHeaders().getFirst("X-Test"));
+        assertEquals("true", second.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testKeysAreScopedToTheEndpoint() {
+        idempotentRequests.execute(request("k"), "POST /tasks/1/comments", "body", created("one"));
+        ResponseEntity<String> other =
+                idempotentRequests.execute(
+                        request("k"), "POST /tasks/2/comments", "body", created("two"));
+
+        assertEquals(2, runs.get());
+        assertEquals("two", other.getBody());
+    }
+
+    @Test
+    void testKeysAreScopedToTheClient() {
+        idempotentRequests.execute(request("k", "a"), "POST /tasks", "body", created("a"));
+        ResponseEntity<String> other =
+                idempotentRequests.execute(
+                        request("k", "b"), "POST /tasks", "other body", created("b"));
+        MockHttpServletRequest anonymous = request("k", null);
+        anonymous.setRemoteAddr("10.0.0.9");
+        idempotentRequests.execute(anonymous, "POST /tasks", "body", created("c"));
+
+        assertEquals(3, runs.get());
+        assertEquals("b", other.getBody());
+        assertNull(other.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testReusedKeyWithDifferentBodyIsRefused() {
+        idempotentRequests.execute(
+                request("k"),
+                "POST /tasks",
+                Collections.singletonMap("title", "a"),
+                created("first"));
+
+        assertThrows(
+                IdempotencyKeyReusedException.class,
+                () ->
+                        idempotentRequests.execute(
+                                request("k"),
+                                "POST /tasks",
+                                Collections.singletonMap("title", "b"),
+                                created("second")));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testFailedRequestIsForgottenSoARetryRunsAgain() {
+        IllegalStateException failure = new IllegalStateException("boom");
+        IllegalStateException thrown =
+                assertThrows(
+                        IllegalStateException.class,
+                        () ->
+                                idempotentRequests.execute(
+                                        request("k"),
+                                        "POST /tasks",
+                                        "body",
+                                        () -> {
+                                            throw failure;
+                                        }));
+        assertSame(failure, thrown);
+
+        ResponseEntity<String> retry =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("retried"));
+
+        assertEquals(1, runs.get());
+        assertEquals("retried", retry.getBody());
+    }
+
+    @Test
+    void testUnconfirmedWorkKeepsTheKeyUntilItCompletes() {
+        idempotentRequests = requests(100, Duration.ofMillis(50));
+        CompletableFuture<String> written = new CompletableFuture<>();
+        Unconfirmed unconfirmed = new Unconfirmed(written);
+
+        assertSame(
+                unconfirmed,
+                assertThrows(
+                        Unconfirmed.class,
+                        () ->
+                                idempotentRequests.execute(
+                                        request("k"), "POST /tasks", "body", fail(unconfirmed))));
+        assertThrows(
+                IdempotencyKeyInProgressException.class,
+                () ->
+                        idempotentRequests.execute(
+                                request("k"), "POST /tasks", "body", created("x")));
+        written.complete("written");
+        ResponseEntity<String> retry =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("again"));
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("written", retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testUnconfirmedWorkThatFailsIsForgotten() {
+        CompletableFuture<String> written = new CompletableFuture<>();
+        Unconfirmed unconfirmed = new Unconfirmed(written);
+        assertThrows(
+                Unconfirmed.class,
+                () ->
+                        idempotentRequests.execute(
+                                request("k"), "POST /tasks", "body", fail(unconfirmed)));
+
+        written.completeExceptionally(new IllegalStateException("not written"));
+        ResponseEntity<String> retry =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("retried"));
+
+        assertEquals(2, runs.get());
+        assertEquals("retried", retry.getBody());
+    }
+
+    @Test
+    void testConcurrentDuplicateWaitsForTheFirstResponse() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<String>> first =
+                executor.submit(
+                        () ->
+                                idempotentRequests.execute(
+                                        request("k"),
+                                        "POST /tasks",
+                                        "body",
+                                        () -> {
+                                            started.countDown();
+                                            await(release);
+                                            return created("first").get();
+                                        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Let the first request finish only after the duplicate has started waiting for it.
+        new Thread(
+                        () -> {
+                            await(new CountDownLatch(1), 100);
+                            release.countDown();
+                        })
+                .start();
+        ResponseEntity<String> duplicate =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("second"));
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals("first", duplicate.getBody());
+        assertEquals("true", duplicate.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testDuplicateOfASlowRequestTimesOutWithConflict() throws Exception {
+        idempotentRequests = requests(100, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<String>> first =
+                executor.submit(
+                        () ->
+                                idempotentRequests.execute(
+                                        request("k"),
+                                        "POST /tasks",
+                                        "body",
+                                        () -> {
+                                            started.countDown();
+                                            await(release);
+                                            return created("first").get();
+                                        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertThrows(
+                    IdempotencyKeyInProgressException.class,
+                    () ->
+                            idempotentRequests.execute(
+                                    request("k"), "POST /tasks", "body", created("x")));
+        } finally {
+            release.countDown();
+        }
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testKeyChurnDoesNotEvictARunningRequest() throws Exception {
+        idempotentRequests = requests(2, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<ResponseEntity<String>> first =
+                executor.submit(
+                        () ->
+                                idempotentRequests.execute(
+                                        request("k"),
+                                        "POST /tasks",
+                                        "body",
+                                        () -> {
+                                            started.countDown();
+                                            await(release);
+                                            return created("first").get();
+                                        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                idempotentRequests.execute(
+                        request("other-" + i), "POST /tasks", "body", created("other"));
+            }
+            assertThrows(
+                    IdempotencyKeyInProgressException.class,
+                    () ->
+                            idempotentRequests.execute(
+                                    request("k"), "POST /tasks", "body", created("x")));
+        } finally {
+            release.countDown();
+        }
+        assertEquals("first", first.get(5, TimeUnit.SECONDS).getBody());
+        ResponseEntity<String> retry =
+                idempotentRequests.execute(request("k"), "POST /tasks", "body", created("x"));
+
+        assertEquals("first", retry.getBody());
+        assertEquals(11, runs.get());
+    }
+
+    @Test
+    void testWithoutKeyOrWhenDisabledEveryRequestRuns() {
+        idempotentRequests.execute(request(null), "POST /tasks", "body", created("a"));
+        idempotentRequests.execute(request(null), "POST /tasks", "body", created("b"));
+        IdempotentRequests disabled = requests(0, Duration.ofSeconds(5));
+        disabled.execute(request("k"), "POST /tasks", "body", created("c"));
+        disabled.execute(request("k"), "POST /tasks", "body", created("d"));
+
+        assertEquals(4, runs.get());
+    }
+
+    @Test
+    void testBlankOrOverlongKeyIsBadRequest() {
+        String overlong =
+                new String(new char[IdempotentRequests.MAX_KEY_LENGTH + 1]).replace('\0', 'k');
+
+        for (String key : new String[] {"", overlong}) {
+            ResponseStatusException e =
+                    assertThrows(
+                            ResponseStatusException.class,
+                            () ->
+                                    idempotentRequests.execute(
+                                            request(key), "POST /tasks", "body", created("x")));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+        assertEquals(0, runs.get());
+    }
+
+    private Supplier<ResponseEntity<String>> fail(RuntimeException failure) {
+        return () -> {
+            runs.incrementAndGet();
+            throw failure;
+        };
+    }
+
+    /** Thrown once the work is accepted, like a queued comment that is not yet written. */
+    private static final class Unconfirmed extends RuntimeException implements UnconfirmedWork {
+        private final CompletableFuture<String> completion;
+
+        private Unconfirmed(CompletableFuture<String> completion) {
+            this.completion = completion;
+        }
+
+        @Override
+        public CompletableFuture<String> completion() {
+            return completion;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        await(latch, 5000);
+    }
+
+    private static void await(CountDownLatch latch, long millis) {
+        try {
+            latch.await(millis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
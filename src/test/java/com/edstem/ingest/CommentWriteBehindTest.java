@@ -0,0 +1,211 @@
+package com.edstem.ingest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.events.TaskEventLog;
+import com.edstem.mapper.DirectTaskMapper;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.TaskRepository;
+import com.edstem.search.TaskSearchIndex;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class CommentWriteBehindTest {
+
+    private TaskRepository taskRepository;
+    private CommentRepository commentRepository;
+    private EntityManager entityManager;
+    private TaskEventLog taskEventLog;
+    private CommentWriteBehind writeBehind;
+
+    @BeforeEach
+    public void init() {
+        taskRepository = mock(TaskRepository.class);
+        commentRepository = mock(CommentRepository.class);
+        entityManager = mock(EntityManager.class);
+        taskEventLog = mock(TaskEventLog.class);
+        when(entityManager.getReference(any(), any()))
+                .thenAnswer(
+                        invocation -> Task.builder().id((Long) invocation.getArgument(1)).build());
+        AtomicLong ids = new AtomicLong();
+        when(commentRepository.saveAll(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<Comment> saved = new ArrayList<>();
+                            for (Comment comment : invocation.<List<Comment>>getArgument(0)) {
+                                if (comment.getTask().getId() < 0) {
+                                    throw new DataIntegrityViolationException("no such task");
+                                }
+                                if (comment.getComment().length() > 10) {
+                                    throw new DataIntegrityViolationException("value too long");
+                                }
+                                saved.add(
+                                        Comment.builder()
+                                                .id(ids.incrementAndGet())
+                                                .task(comment.getTask())
+                                                .comment(comment.getComment())
+                                                .build());
+                            }
+                            return saved;
+                        });
+    }
+
+    @AfterEach
+    public void close() throws InterruptedException {
+        writeBehind.close();
+    }
+
+    private CommentWriteBehind writeBehind(CommentWriteMode mode, int queueCapacity) {
+        return writeBehind(mode, queueCapacity, Duration.ofSeconds(5));
+    }
+
+    private CommentWriteBehind writeBehind(
+            CommentWriteMode mode, int queueCapacity, Duration ackTimeout) {
+        return new CommentWriteBehind(
+                taskRepository,
+                commentRepository,
+                entityManager,
+                mock(PlatformTransactionManager.class),
+                new DirectTaskMapper(),
+                mock(TaskSearchIndex.class),
+                taskEventLog,
+                mode,
+                queueCapacity,
+                100,
+                Duration.ofMillis(10),
+                ackTimeout,
+                100,
+                Duration.ofSeconds(60));
+    }
+
+    @Test
+    void testAcknowledgedSubmitReturnsStoredComment() {
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind = writeBehind(CommentWriteMode.ACKNOWLEDGED, 10);
+        writeBehind.start();
+
+        CommentResponse first = writeBehind.submit(1L, "First");
+        CommentResponse second = writeBehind.submit(1L, "Second");
+
+        assertEquals(1L, first.getId());
+        assertEquals("Second", second.getComment());
+        verify(taskRepository, times(1)).existsById(1L);
+        verify(taskEventLog).commentAdded(1L, first);
+    }
+
+    @Test
+    void testFireAndForgetReturnsBeforeWriting() {
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind = writeBehind(CommentWriteMode.FIRE_AND_FORGET, 10);
+
+        CommentResponse accepted = writeBehind.submit(1L, "Later");
+
+        assertNull(accepted.getId());
+        assertEquals("Later", accepted.getComment());
+        verify(commentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testUnknownTaskIsRejectedWithoutQueueing() {
+        writeBehind = writeBehind(CommentWriteMode.FIRE_AND_FORGET, 1);
+
+        assertThrows(RuntimeException.class, () -> writeBehind.submit(1L, "Comment"));
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind.submit(1L, "Fits in the still empty queue");
+    }
+
+    @Test
+    void testFullQueueAppliesBackpressure() {
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind = writeBehind(CommentWriteMode.FIRE_AND_FORGET, 2);
+        writeBehind.submit(1L, "One");
+        writeBehind.submit(1L, "Two");
+
+        CommentBacklogException exception =
+                assertThrows(CommentBacklogException.class, () -> writeBehind.submit(1L, "Three"));
+
+        assertThat(exception.getMessage(), containsString("full"));
+    }
+
+    @Test
+    void testUnconfirmedWriteStillCompletesAfterTheTimeout() throws Exception {
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind = writeBehind(CommentWriteMode.ACKNOWLEDGED, 10, Duration.ofMillis(10));
+
+        CommentNotConfirmedException exception =
+                assertThrows(
+                        CommentNotConfirmedException.class, () -> writeBehind.submit(1L, "Late"));
+        writeBehind.start();
+
+        assertEquals("Late", exception.completion().get(5, TimeUnit.SECONDS).getComment());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedPerComment() {
+        writeBehind = writeBehind(CommentWriteMode.ACKNOWLEDGED, 10);
+        CommentWriteBehind.PendingComment good = new CommentWriteBehind.PendingComment(1L, "Good");
+        CommentWriteBehind.PendingComment orphan =
+                new CommentWriteBehind.PendingComment(-1L, "Orphan");
+
+        writeBehind.flush(Arrays.asList(good, orphan));
+
+        assertEquals("Good", good.result().join().getComment());
+        assertThat(
+                assertThrows(Exception.class, () -> orphan.result().join()).getMessage(),
+                containsString("Task not found"));
+        verify(commentRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void testRowFailureOnAnExistingTaskIsReportedAsItIs() {
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind = writeBehind(CommentWriteMode.ACKNOWLEDGED, 10);
+        CommentWriteBehind.PendingComment good = new CommentWriteBehind.PendingComment(1L, "Good");
+        CommentWriteBehind.PendingComment tooLong =
+                new CommentWriteBehind.PendingComment(1L, "Far too long a comment");
+
+        writeBehind.flush(Arrays.asList(good, tooLong));
+
+        assertEquals("Good", good.result().join().getComment());
+        Throwable failure = assertThrows(Exception.class, () -> tooLong.result().join()).getCause();
+        assertThat(failure, instanceOf(DataIntegrityViolationException.class));
+        assertThat(failure.getMessage(), containsString("value too long"));
+    }
+
+    @Test
+    void testSubmitAfterCloseIsRefused() throws InterruptedException {
+        when(taskRepository.existsById(1L)).thenReturn(true);
+        writeBehind = writeBehind(CommentWriteMode.FIRE_AND_FORGET, 10);
+        writeBehind.close();
+
+        CommentBacklogException exception =
+                assertThrows(CommentBacklogException.class, () -> writeBehind.submit(1L, "Late"));
+
+        assertThat(exception.getMessage(), containsString("shutting down"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.edstem.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "app.comments.write-mode=fire-and-forget")
+public class CommentWriteModeBindingTest {
+
+    @Autowired private CommentWriteBehind commentWriteBehind;
+
+    @Test
+    void testKebabCaseWriteModeBindsToTheEnum() {
+        assertEquals(CommentWriteMode.FIRE_AND_FORGET, commentWriteBehind.getMode());
+    }
+}
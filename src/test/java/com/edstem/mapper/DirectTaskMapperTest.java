@@ -0,0 +1,70 @@
+package com.edstem.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.edstem.Application;
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+public class DirectTaskMapperTest {
+
+    private final TaskMapper directMapper = new DirectTaskMapper();
+    private final TaskMapper reflectiveMapper =
+            new ModelMapperTaskMapper(new Application().modelMapper());
+
+    @Test
+    void testToTaskResponseMatchesModelMapper() {
+        Task task =
+                Task.builder()
+                        .id(7L)
+                        .title("Title")
+                        .description("Description")
+                        .assigneeId(3L)
+                        .status(TaskStatus.IN_PROGRESS)
+                        .version(7L)
+                        .build();
+
+        TaskResponse direct = directMapper.toTaskResponse(task);
+        TaskResponse reflective = reflectiveMapper.toTaskResponse(task);
+
+        assertEquals(reflective.getId(), direct.getId());
+        assertEquals(reflective.getTitle(), direct.getTitle());
+        assertEquals(reflective.getDescription(), direct.getDescription());
+        assertEquals(reflective.getAssigneeId(), direct.getAssigneeId());
+        assertEquals(reflective.getStatus(), direct.getStatus());
+        assertEquals(reflective.getVersion(), direct.getVersion());
+    }
+
+    @Test
+    void testToTaskMatchesModelMapper() {
+        TaskRequest taskRequest = new TaskRequest();
+        taskRequest.setTitle("Title");
+        taskRequest.setDescription("Description");
+        taskRequest.setAssigneeId(3L);
+        taskRequest.setStatus(TaskStatus.DONE);
+
+        Task direct = directMapper.toTask(taskRequest);
+        Task reflective = reflectiveMapper.toTask(taskRequest);
+
+        assertNull(direct.getId());
+        assertEquals(reflective.getTitle(), direct.getTitle());
+        assertEquals(reflective.getDescription(), direct.getDescription());
+        assertEquals(reflective.getAssigneeId(), direct.getAssigneeId());
+        assertEquals(reflective.getStatus(), direct.getStatus());
+    }
+
+    @Test
+    void testToCommentResponseMatchesModelMapper() {
+        Comment comment = Comment.builder().id(2L).task(new Task()).comment("Looks good").build();
+
+        CommentResponse direct = directMapper.toCommentResponse(comment);
+
+        assertEquals(reflectiveMapper.toCommentResponse(comment).getComment(), direct.getComment());
+    }
+}
@@ -0,0 +1,103 @@
+package com.edstem.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.edstem.metrics.RequestPhases.Phase;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class RequestPhaseInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestPhaseInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new RequestPhaseInterceptor(meterRegistry);
+        request = new MockHttpServletRequest("GET", "/tasks/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tasks/{id}");
+        response = new MockHttpServletResponse();
+    }
+
+    private Timer phase(String phase) {
+        return meterRegistry
+                .get("task.request.phase")
+                .tags("method", "GET", "uri", "/tasks/{id}", "phase", phase)
+                .timer();
+    }
+
+    @Test
+    void testRecordsPhasesAndStatementsPerEndpoint() {
+        interceptor.preHandle(request, response, null);
+        RequestPhases.add(Phase.QUERY, TimeUnit.MILLISECONDS.toNanos(3));
+        RequestPhases.add(Phase.QUERY, TimeUnit.MILLISECONDS.toNanos(2));
+        RequestPhases.add(Phase.MAPPING, TimeUnit.MILLISECONDS.toNanos(1));
+        RequestPhases.countStatement();
+        RequestPhases.countStatement();
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(5, phase("query").totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, phase("mapping").totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, phase("serialization").count());
+        DistributionSummary statements =
+                meterRegistry.get("task.request.statements").tags("uri", "/tasks/{id}").summary();
+        assertEquals(2, statements.totalAmount(), 0.001);
+        assertNull(RequestPhases.finish());
+    }
+
+    @Test
+    void testWorkOutsideRequestIsNotRecorded() {
+        RequestPhases.add(Phase.QUERY, 1000);
+        RequestPhases.countStatement();
+
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertNull(meterRegistry.find("task.request.phase").timer());
+    }
+
+    @Test
+    void testAsyncRequestIsRecordedOnceWhenItCompletes() {
+        interceptor.preHandle(request, response, null);
+        RequestPhases.add(Phase.QUERY, TimeUnit.MILLISECONDS.toNanos(4));
+        RequestPhases.countStatement();
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        assertNull(meterRegistry.find("task.request.phase").timer());
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(1, phase("query").count());
+        assertEquals(4, phase("query").totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("task.request.statements")
+                        .tags("uri", "/tasks/{id}")
+                        .summary()
+                        .totalAmount(),
+                0.001);
+        assertNull(RequestPhases.finish());
+    }
+
+    @Test
+    void testAsyncRequestStopsCollectingOnHandlerThread() {
+        interceptor.preHandle(request, response, null);
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        RequestPhases.add(Phase.QUERY, 1000);
+
+        assertNull(RequestPhases.finish());
+    }
+}
@@ -0,0 +1,127 @@
+package com.edstem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+@DataJpaTest
+public class CommentRepositoryTest {
+
+    @Autowired private TaskRepository taskRepository;
+
+    @Autowired private CommentRepository commentRepository;
+
+    @Autowired private EntityManager entityManager;
+
+    private Task first;
+    private Task second;
+
+    @BeforeEach
+    public void init() {
+        first = taskRepository.save(Task.builder().title("First").build());
+        second = taskRepository.save(Task.builder().title("Second").build());
+        commentRepository.save(Comment.builder().task(first).comment("one").build());
+        commentRepository.save(Comment.builder().task(first).comment("two").build());
+        commentRepository.save(Comment.builder().task(second).comment("three").build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindNewestByTaskIdsLeavesTasksUnloaded() {
+        List<Comment> comments =
+                commentRepository.findNewestByTaskIds(
+                        Arrays.asList(first.getId(), second.getId()), 10);
+
+        assertEquals(3, comments.size());
+        assertEquals(first.getId(), comments.get(0).getTask().getId());
+        assertFalse(Hibernate.isInitialized(comments.get(0).getTask()));
+    }
+
+    @Test
+    void testCountByTaskIds() {
+        Map<Long, Long> counts =
+                commentRepository
+                        .countByTaskIds(Arrays.asList(first.getId(), second.getId()))
+                        .stream()
+                        .collect(Collectors.toMap(CommentCount::getTaskId, CommentCount::getCount));
+
+        assertEquals(2L, counts.get(first.getId()));
+        assertEquals(1L, counts.get(second.getId()));
+    }
+
+    @Test
+    void testFindLatestByTaskIds() {
+        Map<Long, String> latest =
+                commentRepository
+                        .findLatestByTaskIds(Arrays.asList(first.getId(), second.getId()))
+                        .stream()
+                        .collect(
+                                Collectors.toMap(
+                                        comment -> comment.getTask().getId(), Comment::getComment));
+
+        assertEquals("two", latest.get(first.getId()));
+        assertEquals("three", latest.get(second.getId()));
+    }
+
+    @Test
+    void testFindNewestByTaskIdsOrdersByCreatedThenId() {
+        // A comment inserted later but created earlier, as a backfilled or restored one can be.
+        Comment backfilled =
+                commentRepository.save(Comment.builder().task(first).comment("zero").build());
+        entityManager.flush();
+        entityManager
+                .createQuery("update Comment c set c.createdAt = :createdAt where c.id = :id")
+                .setParameter("createdAt", Instant.parse("2000-01-01T00:00:00Z"))
+                .setParameter("id", backfilled.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        List<String> newestTwo =
+                commentRepository.findNewestByTaskIds(Arrays.asList(first.getId()), 2).stream()
+                        .map(Comment::getComment)
+                        .collect(Collectors.toList());
+        List<Comment> latest = commentRepository.findLatestByTaskIds(Arrays.asList(first.getId()));
+
+        assertEquals(Arrays.asList("one", "two"), newestTwo);
+        assertEquals(1, latest.size());
+        assertEquals("two", latest.get(0).getComment());
+    }
+
+    @Test
+    void testFindNewestByTaskIdPagesBackwards() {
+        List<Comment> firstPage =
+                commentRepository.findNewestByTaskId(first.getId(), PageRequest.of(0, 1));
+        Comment cursor = firstPage.get(0);
+        List<Comment> secondPage =
+                commentRepository.findNewestByTaskIdBefore(
+                        first.getId(), cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, 1));
+        Comment oldest = secondPage.get(0);
+
+        assertEquals("two", cursor.getComment());
+        assertEquals("one", oldest.getComment());
+        assertEquals(
+                0,
+                commentRepository
+                        .findNewestByTaskIdBefore(
+                                first.getId(),
+                                oldest.getCreatedAt(),
+                                oldest.getId(),
+                                PageRequest.of(0, 1))
+                        .size());
+    }
+}
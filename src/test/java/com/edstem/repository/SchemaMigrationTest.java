@@ -0,0 +1,125 @@
+package com.edstem.repository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/** Runs the repositories against the Flyway schema, with Hibernate validating it at startup. */
+@DataJpaTest(properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"})
+public class SchemaMigrationTest {
+
+    @Autowired private TaskRepository taskRepository;
+
+    @Autowired private CommentRepository commentRepository;
+
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    void testMigratedSchemaMatchesEntities() {
+        Task task =
+                taskRepository.save(Task.builder().title("Title").status(TaskStatus.OPEN).build());
+        commentRepository.save(Comment.builder().task(task).comment("First").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(
+                1,
+                taskRepository.updateStatusIfCurrent(
+                        task.getId(), TaskStatus.OPEN, TaskStatus.DONE));
+        assertEquals(1L, taskRepository.findVersionById(task.getId()).orElseThrow());
+        List<Comment> comments =
+                commentRepository.findNewestByTaskId(task.getId(), PageRequest.of(0, 10));
+        assertEquals(1, comments.size());
+        assertNotNull(comments.get(0).getCreatedAt());
+    }
+
+    @Test
+    void testStatusCodeTableMatchesEnum() {
+        List<?> rows =
+                entityManager
+                        .createNativeQuery("select code, name from task_status order by code")
+                        .getResultList();
+
+        assertEquals(TaskStatus.values().length, rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            TaskStatus status = TaskStatus.fromCode(((Number) columns[0]).intValue());
+            assertEquals(status.getLabel(), columns[1]);
+        }
+    }
+
+    @Test
+    void testStatusMigrationMapsLegacyLabels() {
+        DataSource dataSource = freshDatabase("legacy-labels");
+        JdbcTemplate jdbcTemplate = migrateToV1(dataSource);
+        insertTasks(jdbcTemplate, "Pending", "COMPLETED", "In_Progress", null);
+
+        flyway(dataSource).migrate();
+
+        assertEquals(
+                Arrays.asList(
+                        (int) TaskStatus.OPEN.getCode(),
+                        (int) TaskStatus.DONE.getCode(),
+                        (int) TaskStatus.IN_PROGRESS.getCode(),
+                        null),
+                jdbcTemplate.queryForList("select status from task order by id", Integer.class));
+    }
+
+    @Test
+    void testStatusMigrationStopsOnUnmappedText() {
+        DataSource dataSource = freshDatabase("unmapped");
+        JdbcTemplate jdbcTemplate = migrateToV1(dataSource);
+        insertTasks(jdbcTemplate, "open", "finished");
+
+        FlywayException failure =
+                assertThrows(FlywayException.class, () -> flyway(dataSource).migrate());
+        assertThat(
+                failure.getMessage().toLowerCase(Locale.ROOT),
+                containsString("ck_task_status_mapped"));
+        assertEquals(
+                Arrays.asList("open", "finished"),
+                jdbcTemplate.queryForList("select status from task order by id", String.class));
+    }
+
+    private static DataSource freshDatabase(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static JdbcTemplate migrateToV1(DataSource dataSource) {
+        Flyway.configure().dataSource(dataSource).target("1").load().migrate();
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        return Flyway.configure().dataSource(dataSource).load();
+    }
+
+    private static void insertTasks(JdbcTemplate jdbcTemplate, String... statuses) {
+        for (int i = 0; i < statuses.length; i++) {
+            jdbcTemplate.update(
+                    "insert into task (id, title, status) values (?, ?, ?)",
+                    i + 1,
+                    "Task " + (i + 1),
+                    statuses[i]);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.edstem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+@DataJpaTest
+public class TaskRepositoryTest {
+
+    @Autowired private TaskRepository taskRepository;
+
+    @Autowired private EntityManager entityManager;
+
+    @Test
+    void testUpdateNonNullFieldsOnlyTouchesGivenColumns() {
+        Task task =
+                taskRepository.save(
+                        Task.builder()
+                                .title("Title")
+                                .description("Description")
+                                .assigneeId(1L)
+                                .status(TaskStatus.OPEN)
+                                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        int updated =
+                taskRepository.updateNonNullFields(
+                        task.getId(), null, null, 2L, TaskStatus.DONE, null);
+        entityManager.clear();
+
+        Task reloaded = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(1, updated);
+        assertEquals("Title", reloaded.getTitle());
+        assertEquals("Description", reloaded.getDescription());
+        assertEquals(2L, reloaded.getAssigneeId());
+        assertEquals(TaskStatus.DONE, reloaded.getStatus());
+        assertEquals(1L, reloaded.getVersion());
+    }
+
+    @Test
+    void testUpdateNonNullFieldsChecksExpectedVersion() {
+        Task task =
+                taskRepository.save(Task.builder().title("Title").status(TaskStatus.OPEN).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(
+                0, taskRepository.updateNonNullFields(task.getId(), "Stale", null, null, null, 5L));
+        assertEquals(
+                1, taskRepository.updateNonNullFields(task.getId(), "Fresh", null, null, null, 0L));
+        entityManager.clear();
+
+        Task reloaded = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals("Fresh", reloaded.getTitle());
+        assertEquals(1L, reloaded.getVersion());
+        assertEquals(1L, taskRepository.findVersionById(task.getId()).orElseThrow());
+    }
+
+    @Test
+    void testFindVersionsByFilterMatchesTheListingQuery() {
+        Task open =
+                taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(1L).build());
+        taskRepository.save(Task.builder().status(TaskStatus.DONE).assigneeId(1L).build());
+        Task openToo =
+                taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(2L).build());
+        entityManager.flush();
+        entityManager.clear();
+        PageRequest page = PageRequest.of(0, 10);
+
+        List<TaskVersion> versions =
+                taskRepository.findVersionsByStatusAndIdGreaterThanOrderByIdAsc(
+                        TaskStatus.OPEN, 0L, page);
+
+        assertEquals(
+                taskRepository
+                        .findByStatusAndIdGreaterThanOrderByIdAsc(TaskStatus.OPEN, 0L, page)
+                        .stream()
+                        .map(Task::getId)
+                        .collect(Collectors.toList()),
+                versions.stream().map(TaskVersion::getId).collect(Collectors.toList()));
+        assertEquals(
+                Arrays.asList(open.getId(), openToo.getId()),
+                versions.stream().map(TaskVersion::getId).collect(Collectors.toList()));
+        assertEquals(0L, versions.get(0).getVersion());
+        assertEquals(
+                Arrays.asList(open.getId()),
+                taskRepository
+                        .findVersionsByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                                TaskStatus.OPEN, 1L, 0L, page)
+                        .stream()
+                        .map(TaskVersion::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testUpdateNonNullFieldsReportsMissingTask() {
+        assertEquals(0, taskRepository.updateNonNullFields(-1L, "Title", null, null, null, null));
+        assertEquals(0, taskRepository.updateNonNullFields(-1L, null, null, null, null, null));
+    }
+
+    @Test
+    void testUpdateStatus() {
+        Task task =
+                taskRepository.save(Task.builder().title("Title").status(TaskStatus.OPEN).build());
+        entityManager.flush();
+
+        assertEquals(1, taskRepository.updateStatus(task.getId(), TaskStatus.DONE));
+
+        assertEquals(
+                TaskStatus.DONE, taskRepository.findById(task.getId()).orElseThrow().getStatus());
+        assertEquals("Title", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+        assertEquals(1L, taskRepository.findById(task.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testUpdateStatusIfCurrentOnlyAppliesFromExpectedStatus() {
+        Task task =
+                taskRepository.save(Task.builder().title("Title").status(TaskStatus.OPEN).build());
+        Task unset = taskRepository.save(Task.builder().title("Unset").build());
+        entityManager.flush();
+
+        assertEquals(
+                0,
+                taskRepository.updateStatusIfCurrent(
+                        task.getId(), TaskStatus.DONE, TaskStatus.BLOCKED));
+        assertEquals(
+                1,
+                taskRepository.updateStatusIfCurrent(
+                        task.getId(), TaskStatus.OPEN, TaskStatus.DONE));
+        assertEquals(
+                0,
+                taskRepository.updateStatusIfCurrent(
+                        task.getId(), TaskStatus.OPEN, TaskStatus.BLOCKED));
+        assertEquals(1, taskRepository.updateStatusIfCurrent(unset.getId(), null, TaskStatus.OPEN));
+
+        TaskState state = taskRepository.findStateById(task.getId()).orElseThrow();
+        assertEquals(TaskStatus.DONE, state.getStatus());
+        assertEquals(1L, state.getVersion());
+        assertEquals(
+                TaskStatus.OPEN,
+                taskRepository.findStateById(unset.getId()).orElseThrow().getStatus());
+        assertEquals(0, taskRepository.updateStatusIfCurrent(-1L, null, TaskStatus.OPEN));
+    }
+
+    @Test
+    void testLockIdsByFilterAndUpdateStatusByIds() {
+        Task first =
+                taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(1L).build());
+        Task second =
+                taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(2L).build());
+        Task done =
+                taskRepository.save(Task.builder().status(TaskStatus.DONE).assigneeId(1L).build());
+        entityManager.flush();
+
+        List<Long> open =
+                taskRepository.lockIdsByStatusAfter(TaskStatus.OPEN, 0L, PageRequest.of(0, 10));
+
+        assertEquals(Arrays.asList(first.getId(), second.getId()), open);
+        assertEquals(
+                Arrays.asList(first.getId()),
+                taskRepository.lockIdsByStatusAndAssigneeAfter(
+                        TaskStatus.OPEN, 1L, 0L, PageRequest.of(0, 10)));
+        assertEquals(
+                Arrays.asList(first.getId(), done.getId()),
+                taskRepository.lockIdsByAssigneeAfter(1L, 0L, PageRequest.of(0, 10)));
+        assertEquals(
+                Arrays.asList(second.getId(), done.getId()),
+                taskRepository.lockIdsAfter(first.getId(), PageRequest.of(0, 10)));
+        assertEquals(2, taskRepository.updateStatusByIds(open, TaskStatus.DONE));
+        assertEquals(
+                0,
+                taskRepository
+                        .lockIdsByStatusAfter(TaskStatus.OPEN, 0L, PageRequest.of(0, 10))
+                        .size());
+    }
+
+    @Test
+    void testUpdateStatusByIdsIfMatchingSkipsTasksThatNoLongerMatch() {
+        Task open =
+                taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(1L).build());
+        Task done =
+                taskRepository.save(Task.builder().status(TaskStatus.DONE).assigneeId(1L).build());
+        Task reassigned =
+                taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(2L).build());
+        entityManager.flush();
+
+        assertEquals(
+                1,
+                taskRepository.updateStatusByIdsIfMatching(
+                        Arrays.asList(open.getId(), done.getId(), reassigned.getId()),
+                        TaskStatus.OPEN,
+                        1L,
+                        TaskStatus.BLOCKED));
+        assertEquals(
+                TaskStatus.BLOCKED,
+                taskRepository.findStateById(open.getId()).orElseThrow().getStatus());
+        assertEquals(
+                TaskStatus.DONE,
+                taskRepository.findStateById(done.getId()).orElseThrow().getStatus());
+        assertEquals(
+                TaskStatus.OPEN,
+                taskRepository.findStateById(reassigned.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testCountByStatusAndAssignee() {
+        taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(1L).build());
+        taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(1L).build());
+        taskRepository.save(Task.builder().status(TaskStatus.OPEN).assigneeId(2L).build());
+        taskRepository.save(Task.builder().status(TaskStatus.DONE).assigneeId(1L).build());
+        entityManager.flush();
+
+        Map<TaskStatus, Long> byStatus =
+                taskRepository.countByStatus().stream()
+                        .collect(Collectors.toMap(StatusCount::getStatus, StatusCount::getCount));
+        Map<Long, Long> openByAssignee =
+                taskRepository.countByAssignee(TaskStatus.OPEN).stream()
+                        .collect(
+                                Collectors.toMap(
+                                        AssigneeCount::getAssigneeId, AssigneeCount::getCount));
+
+        assertEquals(3L, byStatus.get(TaskStatus.OPEN));
+        assertEquals(1L, byStatus.get(TaskStatus.DONE));
+        assertEquals(2L, openByAssignee.get(1L));
+        assertEquals(1L, openByAssignee.get(2L));
+        assertEquals(
+                4,
+                taskRepository.countByAssignee(null).stream()
+                        .mapToLong(AssigneeCount::getCount)
+                        .sum());
+    }
+}
@@ -0,0 +1,200 @@
+package com.edstem.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.edstem.model.Task;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.CommentText;
+import com.edstem.repository.TaskRepository;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TaskSearchIndexTest {
+
+    private TaskRepository taskRepository;
+    private CommentRepository commentRepository;
+    private TaskSearchIndex taskSearchIndex;
+
+    @BeforeEach
+    public void init() {
+        taskRepository = mock(TaskRepository.class);
+        commentRepository = mock(CommentRepository.class);
+        taskSearchIndex = new TaskSearchIndex(taskRepository, commentRepository, Duration.ZERO);
+    }
+
+    private static Task task(long id, String title, String description) {
+        return task(id, 0L, title, description);
+    }
+
+    private static Task task(long id, long version, String title, String description) {
+        return Task.builder().id(id).version(version).title(title).description(description).build();
+    }
+
+    private static CommentText comment(long id, long taskId, String text) {
+        CommentText comment = mock(CommentText.class);
+        when(comment.getId()).thenReturn(id);
+        when(comment.getTaskId()).thenReturn(taskId);
+        when(comment.getComment()).thenReturn(text);
+        return comment;
+    }
+
+    @Test
+    void testTokenizeSplitsOnNonAlphanumericsAndLowerCases() {
+        assertEquals(
+                Arrays.asList("fix", "log", "in", "v2", "größe"),
+                TaskSearchIndex.tokenize("Fix LOG-in (v2) Größe!"));
+    }
+
+    @Test
+    void testRebuildIndexesTasksAndComments() {
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(
+                        Arrays.asList(task(1L, "Fix login", null), task(2L, "Write docs", null)));
+        CommentText comment = comment(10L, 2L, "mention login here");
+        when(commentRepository.findTextsAfter(eq(0L), any()))
+                .thenReturn(Collections.singletonList(comment));
+
+        taskSearchIndex.rebuild();
+
+        assertEquals(Arrays.asList(1L, 2L), taskSearchIndex.search("login", 0, 10).getTaskIds());
+        assertEquals(
+                Collections.singletonList(2L), taskSearchIndex.search("docs", 0, 10).getTaskIds());
+    }
+
+    @Test
+    void testSearchRequiresEveryTermAndRanksByFrequency() {
+        taskSearchIndex.indexTask(task(1L, "Login page", "crash"));
+        taskSearchIndex.indexTask(task(2L, "Login", "login crash, crash again"));
+        taskSearchIndex.indexTask(task(3L, "Login", "slow"));
+
+        SearchHits hits = taskSearchIndex.search("crash login", 0, 10);
+
+        assertEquals(2, hits.getTotal());
+        assertEquals(Arrays.asList(2L, 1L), hits.getTaskIds());
+        assertEquals(0, taskSearchIndex.search("crash missing", 0, 10).getTotal());
+    }
+
+    @Test
+    void testSearchPagesThroughRankedMatches() {
+        for (long id = 1; id <= 5; id++) {
+            taskSearchIndex.indexTask(task(id, "report", null));
+        }
+
+        SearchHits hits = taskSearchIndex.search("report", 2, 2);
+
+        assertEquals(5, hits.getTotal());
+        assertEquals(Arrays.asList(3L, 4L), hits.getTaskIds());
+    }
+
+    @Test
+    void testReindexingTaskKeepsCommentTermsAndDropsOldFieldTerms() {
+        taskSearchIndex.indexTask(task(1L, "Old title", null));
+        taskSearchIndex.indexComment(1L, "reviewed");
+
+        taskSearchIndex.indexTask(task(1L, "New title", null));
+
+        assertEquals(0, taskSearchIndex.search("old", 0, 10).getTotal());
+        assertEquals(1, taskSearchIndex.search("new", 0, 10).getTotal());
+        assertEquals(1, taskSearchIndex.search("reviewed title", 0, 10).getTotal());
+    }
+
+    @Test
+    void testRemoveTaskDropsItFromResults() {
+        taskSearchIndex.indexTask(task(1L, "Deploy", null));
+        taskSearchIndex.indexComment(1L, "deploy failed");
+
+        taskSearchIndex.removeTask(1L);
+
+        assertEquals(0, taskSearchIndex.search("deploy", 0, 10).getTotal());
+    }
+
+    @Test
+    void testStaleIndexTaskDoesNotOverwriteNewerVersion() {
+        taskSearchIndex.indexTask(task(1L, 2L, "Newer", null));
+
+        taskSearchIndex.indexTask(task(1L, 1L, "Older", null));
+
+        assertEquals(0, taskSearchIndex.search("older", 0, 10).getTotal());
+        assertEquals(1, taskSearchIndex.search("newer", 0, 10).getTotal());
+    }
+
+    @Test
+    void testLateWritesDoNotResurrectARemovedTask() {
+        taskSearchIndex.indexTask(task(1L, 0L, "Deploy", null));
+        taskSearchIndex.removeTask(1L);
+
+        taskSearchIndex.indexTask(task(1L, 1L, "Deploy again", null));
+        taskSearchIndex.indexComment(1L, "deploy failed");
+
+        assertEquals(0, taskSearchIndex.search("deploy", 0, 10).getTotal());
+    }
+
+    @Test
+    void testExpiredTombstonesArePrunedWithoutResync() {
+        AtomicLong now = new AtomicLong();
+        taskSearchIndex =
+                new TaskSearchIndex(taskRepository, commentRepository, Duration.ZERO, now::get);
+        taskSearchIndex.removeTask(1L);
+        taskSearchIndex.removeTask(2L);
+        now.addAndGet(TaskSearchIndex.TOMBSTONE_TTL_NANOS + 1);
+
+        taskSearchIndex.removeTask(3L);
+
+        assertEquals(1, taskSearchIndex.tombstoneCount());
+        taskSearchIndex.indexTask(task(1L, 1L, "Deploy", null));
+        taskSearchIndex.indexTask(task(3L, 1L, "Deploy", null));
+        assertEquals(
+                Collections.singletonList(1L),
+                taskSearchIndex.search("deploy", 0, 10).getTaskIds());
+    }
+
+    @Test
+    void testRebuildReplacesDriftedIndex() {
+        taskSearchIndex.indexTask(task(1L, "Stale", null));
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(Collections.singletonList(task(2L, "Fresh", null)));
+
+        taskSearchIndex.rebuild();
+
+        assertEquals(0, taskSearchIndex.search("stale", 0, 10).getTotal());
+        assertEquals(
+                Collections.singletonList(2L), taskSearchIndex.search("fresh", 0, 10).getTaskIds());
+    }
+
+    @Test
+    void testChangesDuringRebuildAreReplayedOntoTheNewIndex() {
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenAnswer(
+                        invocation -> {
+                            taskSearchIndex.indexTask(task(2L, 1L, "Renamed", null));
+                            return Arrays.asList(
+                                    task(1L, "Loaded", null), task(2L, 0L, "Original", null));
+                        });
+
+        taskSearchIndex.rebuild();
+
+        assertEquals(1, taskSearchIndex.search("loaded", 0, 10).getTotal());
+        assertEquals(0, taskSearchIndex.search("original", 0, 10).getTotal());
+        assertEquals(
+                Collections.singletonList(2L),
+                taskSearchIndex.search("renamed", 0, 10).getTaskIds());
+    }
+
+    @Test
+    void testHugeOffsetIsClamped() {
+        taskSearchIndex.indexTask(task(1L, "report", null));
+
+        SearchHits hits = taskSearchIndex.search("report", Integer.MAX_VALUE, 10);
+
+        assertEquals(1, hits.getTotal());
+        assertEquals(Collections.emptyList(), hits.getTaskIds());
+    }
+}
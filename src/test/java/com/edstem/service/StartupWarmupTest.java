@@ -0,0 +1,46 @@
+package com.edstem.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edstem.contract.response.TaskResponse;
+import com.edstem.model.TaskStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+public class StartupWarmupTest {
+
+    private final TaskService taskService = mock(TaskService.class);
+
+    @Test
+    void testRunsReadPathsForEachIteration() {
+        TaskResponse task = new TaskResponse();
+        task.setId(5L);
+        task.setStatus(TaskStatus.OPEN);
+        when(taskService.getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE))
+                .thenReturn(Collections.singletonList(task));
+
+        new StartupWarmup(taskService, new ObjectMapper(), 3).start();
+
+        verify(taskService, times(3)).countTasksByStatus();
+        verify(taskService, times(3))
+                .filterTasks(TaskStatus.OPEN, null, null, TaskService.DEFAULT_PAGE_SIZE);
+        verify(taskService, times(3)).getTaskComments(5L);
+    }
+
+    @Test
+    void testFailureDoesNotPreventStartup() {
+        when(taskService.getAllTasks(any(), any(Integer.class)))
+                .thenThrow(new RuntimeException("database unavailable"));
+
+        new StartupWarmup(taskService, new ObjectMapper(), 3).start();
+
+        verify(taskService, times(1)).getAllTasks(null, TaskService.DEFAULT_PAGE_SIZE);
+        verify(taskService, never()).countTasksByStatus();
+    }
+}
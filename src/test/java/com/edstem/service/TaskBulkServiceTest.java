@@ -0,0 +1,250 @@
+package com.edstem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edstem.cache.TaskCache;
+import com.edstem.contract.request.BulkStatusUpdateRequest;
+import com.edstem.contract.request.TaskRequest;
+import com.edstem.contract.response.BulkCreateResponse;
+import com.edstem.contract.response.BulkStatusUpdateResponse;
+import com.edstem.contract.response.TaskImportResponse;
+import com.edstem.events.TaskEventLog;
+import com.edstem.mapper.DirectTaskMapper;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.TaskRepository;
+import com.edstem.search.TaskSearchIndex;
+import com.edstem.stats.TaskStatusCounters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+public class TaskBulkServiceTest {
+
+    private TaskRepository taskRepository;
+    private EntityManager entityManager;
+    private TaskBulkService taskBulkService;
+    private TaskEventLog taskEventLog;
+
+    @BeforeEach
+    public void init() {
+        taskRepository = mock(TaskRepository.class);
+        entityManager = mock(EntityManager.class);
+        taskEventLog = mock(TaskEventLog.class);
+        taskBulkService = bulkService(2);
+    }
+
+    private TaskBulkService bulkService(int chunkSize) {
+        return new TaskBulkService(
+                taskRepository,
+                new DirectTaskMapper(),
+                entityManager,
+                new TaskCache(100, Duration.ofMinutes(1)),
+                new TaskStatusCounters(taskRepository, false, Duration.ofMinutes(5)),
+                new TaskSearchIndex(taskRepository, mock(CommentRepository.class), Duration.ZERO),
+                taskEventLog,
+                new ObjectMapper(),
+                mock(PlatformTransactionManager.class),
+                chunkSize);
+    }
+
+    @Test
+    void testRejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> bulkService(0));
+        assertThrows(IllegalArgumentException.class, () -> bulkService(-1));
+    }
+
+    @Test
+    void testCreateTasksPersistsInChunks() {
+        assignSequentialIds();
+        List<TaskRequest> taskRequests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            taskRequests.add(new TaskRequest());
+        }
+
+        BulkCreateResponse response = taskBulkService.createTasks(taskRequests);
+
+        assertEquals(5, response.getCreated());
+        assertEquals(3, response.getChunks().size());
+        assertEquals(1L, response.getChunks().get(0).getFirstId());
+        assertEquals(2L, response.getChunks().get(0).getLastId());
+        assertEquals(5L, response.getChunks().get(2).getFirstId());
+        assertEquals(1, response.getChunks().get(2).getSize());
+        verify(taskRepository, times(3)).saveAll(anyList());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testImportTasksStreamsChunksAndReportsRejectedLines() throws IOException {
+        assignSequentialIds();
+        String body =
+                "{\"title\":\"one\"}\n"
+                        + "{\"title\":\"two\"}\n"
+                        + "\n"
+                        + "not json\n"
+                        + "{\"title\":\"three\"}\n";
+
+        TaskImportResponse response =
+                taskBulkService.importTasks(
+                        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(4, response.getReceived());
+        assertEquals(3, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(2, response.getChunks());
+        assertEquals(1L, response.getFirstId());
+        assertEquals(3L, response.getLastId());
+        assertEquals(4, response.getRejectedLines().get(0).getLine());
+        verify(taskRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void testImportTasksRejectsNullAndNonObjectLines() throws IOException {
+        assignSequentialIds();
+        String body = "null\n" + "42\n" + "[]\n" + "\"text\"\n" + "{\"title\":\"one\"}\n";
+
+        TaskImportResponse response =
+                taskBulkService.importTasks(
+                        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, response.getReceived());
+        assertEquals(1, response.getImported());
+        assertEquals(4, response.getRejected());
+        assertEquals(
+                Arrays.asList(1L, 2L, 3L, 4L),
+                response.getRejectedLines().stream()
+                        .map(rejected -> rejected.getLine())
+                        .collect(Collectors.toList()));
+        verify(taskRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void testImportTasksRetriesAFailedChunkRowByRow() throws IOException {
+        AtomicLong ids = new AtomicLong();
+        when(taskRepository.saveAll(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<Task> saved = new ArrayList<>();
+                            for (Task task : invocation.<List<Task>>getArgument(0)) {
+                                if ("too long".equals(task.getTitle())) {
+                                    throw new DataIntegrityViolationException("Value too long");
+                                }
+                                saved.add(Task.builder().id(ids.incrementAndGet()).build());
+                            }
+                            return saved;
+                        });
+        String body =
+                "{\"title\":\"one\"}\n" + "{\"title\":\"too long\"}\n" + "{\"title\":\"two\"}\n";
+
+        TaskImportResponse response =
+                taskBulkService.importTasks(
+                        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getImported());
+        assertEquals(1, response.getRejected());
+        assertEquals(2, response.getChunks());
+        assertEquals(2, response.getRejectedLines().get(0).getLine());
+        assertEquals("Value too long", response.getRejectedLines().get(0).getError());
+        // The failed chunk used id 1 before it rolled back.
+        assertEquals(2L, response.getFirstId());
+        assertEquals(3L, response.getLastId());
+        verify(taskEventLog, times(2)).tasksBulkCreated(anyList());
+    }
+
+    @Test
+    void testUpdateStatusesByIdsReportsMissingIds() {
+        when(taskRepository.lockExistingIds(Arrays.asList(1L, 2L)))
+                .thenReturn(Collections.singletonList(1L));
+        when(taskRepository.lockExistingIds(Collections.singletonList(3L)))
+                .thenReturn(Collections.singletonList(3L));
+        when(taskRepository.updateStatusByIds(anyList(), eq(TaskStatus.DONE))).thenReturn(1);
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setIds(Arrays.asList(1L, 2L, 3L));
+        request.setStatus(TaskStatus.DONE);
+
+        BulkStatusUpdateResponse response = taskBulkService.updateStatuses(request);
+
+        assertEquals(2, response.getUpdated());
+        assertEquals(Arrays.asList(1L, 3L), response.getUpdatedIds());
+        assertEquals(Collections.singletonList(2L), response.getNotFoundIds());
+        verify(taskRepository).updateStatusByIds(Collections.singletonList(1L), TaskStatus.DONE);
+        verify(taskRepository).updateStatusByIds(Collections.singletonList(3L), TaskStatus.DONE);
+        verify(taskEventLog).statusBulkUpdated(Collections.singletonList(1L), TaskStatus.DONE);
+    }
+
+    @Test
+    void testUpdateStatusesByFilterWalksIdsInChunks() {
+        when(taskRepository.lockIdsByStatusAfter(eq(TaskStatus.OPEN), eq(0L), any()))
+                .thenReturn(Arrays.asList(4L, 5L));
+        when(taskRepository.lockIdsByStatusAfter(eq(TaskStatus.OPEN), eq(5L), any()))
+                .thenReturn(Collections.singletonList(9L));
+        when(taskRepository.updateStatusByIdsIfMatching(
+                        anyList(), eq(TaskStatus.OPEN), eq(null), eq(TaskStatus.DONE)))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setCurrentStatus(TaskStatus.OPEN);
+        request.setStatus(TaskStatus.DONE);
+
+        BulkStatusUpdateResponse response = taskBulkService.updateStatuses(request);
+
+        assertEquals(3, response.getUpdated());
+        assertEquals(Arrays.asList(4L, 5L, 9L), response.getUpdatedIds());
+        verify(taskRepository)
+                .updateStatusByIdsIfMatching(
+                        Arrays.asList(4L, 5L), TaskStatus.OPEN, null, TaskStatus.DONE);
+        verify(taskRepository)
+                .updateStatusByIdsIfMatching(
+                        Collections.singletonList(9L), TaskStatus.OPEN, null, TaskStatus.DONE);
+        verify(taskRepository, never()).lockExistingIds(anyList());
+    }
+
+    @Test
+    void testUpdateStatusesCountsRowsTheUpdateReported() {
+        when(taskRepository.lockExistingIds(Arrays.asList(1L, 2L)))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(taskRepository.updateStatusByIds(Arrays.asList(1L, 2L), TaskStatus.DONE))
+                .thenReturn(1);
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setIds(Arrays.asList(1L, 2L));
+        request.setStatus(TaskStatus.DONE);
+
+        assertEquals(1, taskBulkService.updateStatuses(request).getUpdated());
+    }
+
+    private void assignSequentialIds() {
+        AtomicLong ids = new AtomicLong();
+        when(taskRepository.saveAll(anyList()))
+                .thenAnswer(
+                        invocation -> {
+                            List<Task> tasks = invocation.getArgument(0);
+                            return tasks.stream()
+                                    .map(task -> Task.builder().id(ids.incrementAndGet()).build())
+                                    .collect(Collectors.toList());
+                        });
+    }
+}
@@ -4,31 +4,53 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.edstem.cache.TaskCache;
 import com.edstem.contract.request.CommentRequest;
 import com.edstem.contract.request.TaskRequest;
 import com.edstem.contract.request.TaskStatusUpdateRequest;
 import com.edstem.contract.request.TaskUpdateRequest;
+import com.edstem.contract.response.CommentFeedResponse;
 import com.edstem.contract.response.CommentResponse;
+import com.edstem.contract.response.StatusCountResponse;
 import com.edstem.contract.response.TaskResponse;
+import com.edstem.contract.response.TaskSearchResponse;
+import com.edstem.events.TaskEventLog;
+import com.edstem.ingest.CommentWriteBehind;
+import com.edstem.mapper.ModelMapperTaskMapper;
 import com.edstem.model.Comment;
 import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentCount;
 import com.edstem.repository.CommentRepository;
+import com.edstem.repository.StatusCount;
 import com.edstem.repository.TaskRepository;
+import com.edstem.repository.TaskState;
+import com.edstem.search.TaskSearchIndex;
+import com.edstem.stats.TaskStatusCounters;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -42,6 +64,11 @@ public class TaskServiceTest {
     private TaskService taskService;
 
     private ModelMapper modelMapper;
+    private EntityManager entityManager;
+    private TaskCache taskCache;
+    private TaskSearchIndex taskSearchIndex;
+    private TaskEventLog taskEventLog;
+    private CommentWriteBehind commentWriteBehind;
 
     @BeforeEach
     public void init() {
@@ -49,21 +76,93 @@ public class TaskServiceTest {
         taskRepository = mock(TaskRepository.class);
         commentRepository = mock(CommentRepository.class);
         modelMapper = mock(ModelMapper.class);
-        taskService = new TaskService(taskRepository, commentRepository, modelMapper);
+        entityManager = mock(EntityManager.class);
+        taskCache = new TaskCache(100, Duration.ofMinutes(1));
+        taskSearchIndex = new TaskSearchIndex(taskRepository, commentRepository, Duration.ZERO);
+        taskEventLog = mock(TaskEventLog.class);
+        commentWriteBehind = mock(CommentWriteBehind.class);
+        taskService = createTaskService(false);
+    }
+
+    private TaskService createTaskService(boolean countersEnabled) {
+        return new TaskService(
+                taskRepository,
+                commentRepository,
+                new ModelMapperTaskMapper(modelMapper),
+                entityManager,
+                taskCache,
+                new TaskStatusCounters(taskRepository, countersEnabled, Duration.ofMinutes(5)),
+                taskSearchIndex,
+                taskEventLog,
+                commentWriteBehind);
+    }
+
+    private static StatusCount statusCount(TaskStatus status, long count) {
+        return new StatusCount() {
+            @Override
+            public TaskStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private static TaskState taskState(TaskStatus status, long version) {
+        return new TaskState() {
+            @Override
+            public TaskStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
     }
 
     @Test
     void testGetAllTasks() {
         List<Task> mockTasks = Arrays.asList(new Task());
-        when(taskRepository.findAll()).thenReturn(mockTasks);
+        when(taskRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(mockTasks);
 
-        List<TaskResponse> taskResponses = taskService.getAllTasks();
+        List<TaskResponse> taskResponses = taskService.getAllTasks(null, 10);
 
-        verify(taskRepository, times(1)).findAll();
+        verify(taskRepository, times(1))
+                .findByIdGreaterThanOrderByIdAsc(0L, TaskService.keysetPage(10));
 
         assertEquals(mockTasks.size(), taskResponses.size());
     }
 
+    @Test
+    void testGetAllTasksClampsLimit() {
+        taskService.getAllTasks(5L, 1_000_000);
+
+        verify(taskRepository, times(1))
+                .findByIdGreaterThanOrderByIdAsc(
+                        5L, TaskService.keysetPage(TaskService.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void testStreamAllTasks() {
+        Task first = Task.builder().id(1L).build();
+        Task second = Task.builder().id(2L).build();
+        when(taskRepository.streamAllOrderById()).thenReturn(Stream.of(first, second));
+        when(modelMapper.map(any(Task.class), eq(TaskResponse.class)))
+                .thenReturn(new TaskResponse());
+
+        List<TaskResponse> streamed = new ArrayList<>();
+        taskService.streamAllTasks(streamed::add);
+
+        assertEquals(2, streamed.size());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
     @Test
     void testCreateTasks() {
         List<TaskRequest> taskRequests = Arrays.asList(new TaskRequest());
@@ -88,7 +187,7 @@ public class TaskServiceTest {
         taskResponse.setAssigneeId(1L);
         taskResponse.setDescription("The characteristics of someone or something");
         taskResponse.setId(1L);
-        taskResponse.setStatus("Status");
+        taskResponse.setStatus(TaskStatus.OPEN);
         taskResponse.setTitle("Dr");
         when(modelMapper.map(Mockito.<Object>any(), Mockito.<Class<TaskResponse>>any()))
                 .thenReturn(taskResponse);
@@ -98,6 +197,37 @@ public class TaskServiceTest {
         assertSame(taskResponse, actualTask);
     }
 
+    @Test
+    void testGetTaskIsServedFromCache() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(new Task()));
+        when(modelMapper.map(any(Task.class), eq(TaskResponse.class)))
+                .thenReturn(new TaskResponse());
+
+        TaskResponse first = taskService.getTask(1L);
+        TaskResponse second = taskService.getTask(1L);
+
+        assertSame(first, second);
+        verify(taskRepository, times(1)).findById(1L);
+        assertEquals(1, taskService.getTaskCacheStats().getHits());
+        assertEquals(1, taskService.getTaskCacheStats().getMisses());
+    }
+
+    @Test
+    void testUpdateTaskStatusInvalidatesCachedTask() {
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(new Task()));
+        when(taskRepository.updateStatus(1L, TaskStatus.DONE)).thenReturn(1);
+        when(modelMapper.map(any(Task.class), eq(TaskResponse.class)))
+                .thenAnswer(invocation -> new TaskResponse());
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+
+        TaskResponse before = taskService.getTask(1L);
+        taskService.updateTaskStatus(1L, taskStatusUpdateRequest);
+        TaskResponse after = taskService.getTask(1L);
+
+        assertNotSame(before, after);
+    }
+
     @Test
     void testGetTaskThrowsException() {
 
@@ -116,25 +246,67 @@ public class TaskServiceTest {
         assertThat(exception.getMessage(), containsString("Task not found with id " + id));
     }
 
+    @Test
+    void testUpdateTaskWithStaleVersionThrowsMismatch() {
+        Long id = 1L;
+        when(taskRepository.updateNonNullFields(id, "New title", null, null, null, 3L))
+                .thenReturn(0);
+        when(taskRepository.existsById(id)).thenReturn(true);
+        TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
+        taskUpdateRequest.setTitle("New title");
+
+        assertThrows(
+                TaskVersionMismatchException.class,
+                () -> taskService.updateTask(id, taskUpdateRequest, 3L));
+        verify(taskRepository, never()).findById(id);
+    }
+
+    @Test
+    void testFindTaskVersionPrefersCachedTask() {
+        TaskResponse cached = new TaskResponse();
+        cached.setVersion(4L);
+        taskCache.get(1L, id -> cached);
+
+        assertEquals(Optional.of(4L), taskService.findTaskVersion(1L));
+        verify(taskRepository, never()).findVersionById(1L);
+    }
+
     @Test
     void testUpdateTaskById() {
         Long id = 1L;
         TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
-        Task task = new Task();
+        taskUpdateRequest.setTitle("New title");
         Task updatedTask = new Task();
         TaskResponse taskResponse = new TaskResponse();
 
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
+        when(taskRepository.updateNonNullFields(id, "New title", null, null, null, null))
+                .thenReturn(1);
+        when(taskRepository.findById(id)).thenReturn(Optional.of(updatedTask));
         when(modelMapper.map(any(Task.class), eq(TaskResponse.class))).thenReturn(taskResponse);
 
-        TaskResponse result = taskService.updateTask(id, taskUpdateRequest);
+        TaskResponse result = taskService.updateTask(id, taskUpdateRequest, null);
 
         assertNotNull(result);
-        verify(taskRepository, times(1)).save(any(Task.class));
+        verify(taskRepository, times(1))
+                .updateNonNullFields(id, "New title", null, null, null, null);
+        verify(taskRepository, never()).save(any(Task.class));
         verify(modelMapper, times(1)).map(any(Task.class), eq(TaskResponse.class));
     }
 
+    @Test
+    void testUpdateTaskThrowsWhenNotFound() {
+        Long id = 1L;
+        when(taskRepository.updateNonNullFields(eq(id), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+
+        RuntimeException exception =
+                assertThrows(
+                        RuntimeException.class,
+                        () -> taskService.updateTask(id, new TaskUpdateRequest(), null));
+
+        assertThat(exception.getMessage(), containsString("Task not found with id " + id));
+    }
+
     @Test
     void testDeleteTaskById() {
         Long id = 1L;
@@ -147,47 +319,197 @@ public class TaskServiceTest {
 
         verify(taskRepository, times(1)).findById(id);
         verify(taskRepository, times(1)).delete(task);
+        verify(taskEventLog).taskDeleted(id);
     }
 
     @Test
     void testUpdateTaskByStatus() {
         Long id = 1L;
-        String status = "completed";
-        Task task = Task.builder().id(id).status("in progress").build();
+        TaskStatus status = TaskStatus.DONE;
         Task updatedTask = Task.builder().id(id).status(status).build();
         TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
         taskStatusUpdateRequest.setStatus(status);
         TaskResponse taskResponse = new TaskResponse();
         taskResponse.setStatus(status);
 
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
+        when(taskRepository.updateStatus(id, status)).thenReturn(1);
+        when(taskRepository.findById(id)).thenReturn(Optional.of(updatedTask));
         when(modelMapper.map(any(Task.class), eq(TaskResponse.class))).thenReturn(taskResponse);
 
         TaskResponse result = taskService.updateTaskStatus(id, taskStatusUpdateRequest);
 
         assertNotNull(result);
         assertEquals(result.getStatus(), status);
+        verify(taskRepository, times(1)).updateStatus(id, status);
         verify(taskRepository, times(1)).findById(id);
-        verify(taskRepository, times(1)).save(any(Task.class));
+        verify(taskRepository, never()).save(any(Task.class));
+        verify(taskEventLog).taskUpdated(taskResponse);
+    }
+
+    @Test
+    void testUpdateTaskStatusThrowsWhenNotFound() {
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+        when(taskRepository.updateStatus(1L, TaskStatus.DONE)).thenReturn(0);
+
+        assertThrows(
+                RuntimeException.class,
+                () -> taskService.updateTaskStatus(1L, taskStatusUpdateRequest));
+    }
+
+    @Test
+    void testUpdateTaskStatusWithExpectedStatusIsSingleConditionalUpdate() {
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setExpectedStatus(TaskStatus.OPEN);
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+        when(taskRepository.updateStatusIfCurrent(1L, TaskStatus.OPEN, TaskStatus.DONE))
+                .thenReturn(1);
+        when(taskRepository.findById(1L))
+                .thenReturn(Optional.of(Task.builder().id(1L).status(TaskStatus.DONE).build()));
+
+        taskService.updateTaskStatus(1L, taskStatusUpdateRequest);
+
+        verify(taskRepository, never()).updateStatus(any(), any());
+        verify(taskRepository, never()).findStateById(any());
+    }
+
+    @Test
+    void testUpdateTaskStatusConflictsWhenExpectedStatusDiffers() {
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setExpectedStatus(TaskStatus.OPEN);
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+        when(taskRepository.updateStatusIfCurrent(1L, TaskStatus.OPEN, TaskStatus.DONE))
+                .thenReturn(0);
+        when(taskRepository.findStateById(1L))
+                .thenReturn(Optional.of(taskState(TaskStatus.BLOCKED, 2)));
+
+        TaskConflictException exception =
+                assertThrows(
+                        TaskConflictException.class,
+                        () -> taskService.updateTaskStatus(1L, taskStatusUpdateRequest));
+
+        assertThat(exception.getMessage(), containsString("blocked"));
+        verify(taskEventLog, never()).taskUpdated(any());
+    }
+
+    @Test
+    void testUpdateTaskStatusWithExpectedStatusThrowsWhenNotFound() {
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setExpectedStatus(TaskStatus.OPEN);
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+        when(taskRepository.findStateById(1L)).thenReturn(Optional.empty());
+
+        RuntimeException exception =
+                assertThrows(
+                        RuntimeException.class,
+                        () -> taskService.updateTaskStatus(1L, taskStatusUpdateRequest));
+
+        assertThat(exception.getMessage(), containsString("Task not found"));
+    }
+
+    @Test
+    void testCountedStatusUpdateRetriesWhenStatusChangesConcurrently() {
+        TaskService countingService = createTaskService(true);
+        when(taskRepository.countByStatus())
+                .thenReturn(
+                        Arrays.asList(
+                                statusCount(TaskStatus.OPEN, 1),
+                                statusCount(TaskStatus.BLOCKED, 1)));
+        when(taskRepository.findStateById(1L))
+                .thenReturn(
+                        Optional.of(taskState(TaskStatus.OPEN, 0)),
+                        Optional.of(taskState(TaskStatus.BLOCKED, 1)));
+        when(taskRepository.updateStatusIfCurrent(1L, TaskStatus.OPEN, TaskStatus.DONE))
+                .thenReturn(0);
+        when(taskRepository.updateStatusIfCurrent(1L, TaskStatus.BLOCKED, TaskStatus.DONE))
+                .thenReturn(1);
+        when(taskRepository.findById(1L))
+                .thenReturn(Optional.of(Task.builder().id(1L).status(TaskStatus.DONE).build()));
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+
+        countingService.countTasksByStatus();
+        countingService.updateTaskStatus(1L, taskStatusUpdateRequest);
+        Map<TaskStatus, Long> counts =
+                countingService.countTasksByStatus().stream()
+                        .collect(
+                                Collectors.toMap(
+                                        StatusCountResponse::getStatus,
+                                        StatusCountResponse::getCount));
+
+        assertEquals(1L, counts.get(TaskStatus.OPEN));
+        assertEquals(1L, counts.get(TaskStatus.DONE));
+        assertNull(counts.get(TaskStatus.BLOCKED));
+    }
+
+    @Test
+    void testCountedStatusUpdateGivesUpAfterBoundedAttempts() {
+        TaskService countingService = createTaskService(true);
+        when(taskRepository.findStateById(1L))
+                .thenReturn(Optional.of(taskState(TaskStatus.OPEN, 0)));
+        when(taskRepository.updateStatusIfCurrent(1L, TaskStatus.OPEN, TaskStatus.DONE))
+                .thenReturn(0);
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+
+        assertThrows(
+                TaskConflictException.class,
+                () -> countingService.updateTaskStatus(1L, taskStatusUpdateRequest));
+        verify(taskRepository, times(TaskService.MAX_UPDATE_ATTEMPTS))
+                .updateStatusIfCurrent(1L, TaskStatus.OPEN, TaskStatus.DONE);
+    }
+
+    @Test
+    void testCountedUpdateIsConditionalOnVersionRead() {
+        TaskService countingService = createTaskService(true);
+        when(taskRepository.findStateById(1L))
+                .thenReturn(
+                        Optional.of(taskState(TaskStatus.OPEN, 4)),
+                        Optional.of(taskState(TaskStatus.OPEN, 5)));
+        when(taskRepository.updateNonNullFields(1L, null, null, null, TaskStatus.DONE, 4L))
+                .thenReturn(0);
+        when(taskRepository.updateNonNullFields(1L, null, null, null, TaskStatus.DONE, 5L))
+                .thenReturn(1);
+        when(taskRepository.findById(1L))
+                .thenReturn(Optional.of(Task.builder().id(1L).status(TaskStatus.DONE).build()));
+        TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
+        taskUpdateRequest.setStatus(TaskStatus.DONE);
+
+        countingService.updateTask(1L, taskUpdateRequest, null);
+
+        verify(taskRepository, times(2)).findStateById(1L);
+    }
+
+    @Test
+    void testCountedUpdateChecksIfMatchVersionAgainstRead() {
+        TaskService countingService = createTaskService(true);
+        when(taskRepository.findStateById(1L))
+                .thenReturn(Optional.of(taskState(TaskStatus.OPEN, 4)));
+        TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
+        taskUpdateRequest.setStatus(TaskStatus.DONE);
+
+        assertThrows(
+                TaskVersionMismatchException.class,
+                () -> countingService.updateTask(1L, taskUpdateRequest, 3L));
+        verify(taskRepository, never())
+                .updateNonNullFields(any(), any(), any(), any(), any(), any());
     }
 
     @Test
     void testGetTasksByStatus() {
-        String status = "in progress";
+        TaskStatus status = TaskStatus.IN_PROGRESS;
 
         List<Task> tasks = new ArrayList<>();
         tasks.add(Task.builder().id(1L).status(status).build());
         tasks.add(Task.builder().id(2L).status(status).build());
-        tasks.add(
-                Task.builder()
-                        .id(3L)
-                        .status("completed")
-                        .build());
+        tasks.add(Task.builder().id(3L).status(TaskStatus.DONE).build());
 
-        when(taskRepository.findByStatus(status)).thenReturn(tasks);
+        when(taskRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                        status, 0L, TaskService.keysetPage(TaskService.DEFAULT_PAGE_SIZE)))
+                .thenReturn(tasks);
 
-        List<TaskResponse> result = taskService.getTasksByStatus(status);
+        List<TaskResponse> result =
+                taskService.getTasksByStatus(status, null, TaskService.DEFAULT_PAGE_SIZE);
 
         List<TaskResponse> expectedResponses =
                 tasks.stream()
@@ -201,24 +523,111 @@ public class TaskServiceTest {
     void testGetTasksByAssignee() {
         Long assigneeId = 1L;
         Task task = Task.builder().id(1L).assigneeId(assigneeId).build();
-        when(taskRepository.findByAssigneeId(assigneeId)).thenReturn(Arrays.asList(task));
+        when(taskRepository.findByAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                        eq(assigneeId), eq(0L), any()))
+                .thenReturn(Arrays.asList(task));
 
         TaskResponse taskResponse = new TaskResponse();
         taskResponse.setId(1L);
         when(modelMapper.map(any(Task.class), eq(TaskResponse.class))).thenReturn(taskResponse);
 
-        List<TaskResponse> tasks = taskService.getTasksByAssignee(assigneeId);
+        List<TaskResponse> tasks =
+                taskService.getTasksByAssignee(assigneeId, null, TaskService.DEFAULT_PAGE_SIZE);
 
         assertEquals(1, tasks.size());
         assertEquals(task.getId(), tasks.get(0).getId());
     }
 
+    @Test
+    void testFilterTasksByStatusAndAssignee() {
+        Task task = Task.builder().id(8L).status(TaskStatus.OPEN).assigneeId(2L).build();
+        when(taskRepository.findByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                        TaskStatus.OPEN, 2L, 7L, TaskService.keysetPage(20)))
+                .thenReturn(Arrays.asList(task));
+        TaskResponse taskResponse = new TaskResponse();
+        taskResponse.setId(8L);
+        when(modelMapper.map(any(Task.class), eq(TaskResponse.class))).thenReturn(taskResponse);
+
+        List<TaskResponse> tasks = taskService.filterTasks(TaskStatus.OPEN, 2L, 7L, 20);
+
+        assertEquals(1, tasks.size());
+        assertEquals(8L, tasks.get(0).getId());
+        verify(taskRepository, never())
+                .findByStatusAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+    }
+
+    @Test
+    void testFindTaskPageVersionsUsesThePerFilterQuery() {
+        taskService.findTaskPageVersions(TaskStatus.OPEN, null, null, 20);
+        taskService.findTaskPageVersions(null, 2L, 7L, 20);
+
+        verify(taskRepository)
+                .findVersionsByStatusAndIdGreaterThanOrderByIdAsc(
+                        TaskStatus.OPEN, 0L, TaskService.keysetPage(20));
+        verify(taskRepository)
+                .findVersionsByAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                        2L, 7L, TaskService.keysetPage(20));
+        verify(taskRepository, never())
+                .findVersionsByStatusAndAssigneeIdAndIdGreaterThanOrderByIdAsc(
+                        any(), any(), any(), any());
+        verify(taskRepository, never()).findVersionsByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void testCountTasksByStatusQueriesDatabaseWhenCountersDisabled() {
+        when(taskRepository.countByStatus())
+                .thenReturn(
+                        Arrays.asList(
+                                statusCount(TaskStatus.OPEN, 3), statusCount(TaskStatus.DONE, 1)));
+
+        List<StatusCountResponse> counts = taskService.countTasksByStatus();
+
+        assertEquals(2, counts.size());
+        assertEquals(TaskStatus.OPEN, counts.get(0).getStatus());
+        assertEquals(3, counts.get(0).getCount());
+        verify(taskRepository, never()).findStateById(any());
+    }
+
+    @Test
+    void testCountersFollowCreatesStatusChangesAndDeletes() {
+        TaskService countingService = createTaskService(true);
+        when(taskRepository.countByStatus())
+                .thenReturn(Collections.singletonList(statusCount(TaskStatus.OPEN, 2)));
+        when(taskRepository.saveAll(any()))
+                .thenReturn(Arrays.asList(Task.builder().id(3L).status(TaskStatus.OPEN).build()));
+        when(modelMapper.map(any(TaskRequest.class), eq(Task.class))).thenReturn(new Task());
+        when(taskRepository.findStateById(3L))
+                .thenReturn(Optional.of(taskState(TaskStatus.OPEN, 0)));
+        when(taskRepository.updateStatusIfCurrent(3L, TaskStatus.OPEN, TaskStatus.DONE))
+                .thenReturn(1);
+        when(taskRepository.findById(3L))
+                .thenReturn(Optional.of(Task.builder().id(3L).status(TaskStatus.DONE).build()));
+        TaskStatusUpdateRequest taskStatusUpdateRequest = new TaskStatusUpdateRequest();
+        taskStatusUpdateRequest.setStatus(TaskStatus.DONE);
+
+        countingService.countTasksByStatus();
+        countingService.createTasks(Arrays.asList(new TaskRequest()));
+        countingService.updateTaskStatus(3L, taskStatusUpdateRequest);
+        Map<TaskStatus, Long> afterUpdate =
+                countingService.countTasksByStatus().stream()
+                        .collect(
+                                Collectors.toMap(
+                                        StatusCountResponse::getStatus,
+                                        StatusCountResponse::getCount));
+        countingService.deleteTask(3L);
+
+        assertEquals(2L, afterUpdate.get(TaskStatus.OPEN));
+        assertEquals(1L, afterUpdate.get(TaskStatus.DONE));
+        assertEquals(1, countingService.countTasksByStatus().size());
+        verify(taskRepository, times(1)).countByStatus();
+    }
+
     @Test
     void testAddCommentToTask() {
         Long taskId = 1L;
         String commentText = "New Comment";
 
-        Task task = Task.builder().id(taskId).status("in progress").build();
+        Task task = Task.builder().id(taskId).status(TaskStatus.IN_PROGRESS).build();
 
         CommentRequest commentRequest = new CommentRequest();
         commentRequest.setComment(commentText);
@@ -235,11 +644,24 @@ public class TaskServiceTest {
         assertEquals(expectedResponse, result);
     }
 
+    @Test
+    void testAddCommentGoesThroughWriteBehindWhenEnabled() {
+        CommentRequest commentRequest = new CommentRequest();
+        commentRequest.setComment("Queued");
+        CommentResponse written = new CommentResponse();
+        when(commentWriteBehind.isEnabled()).thenReturn(true);
+        when(commentWriteBehind.submit(1L, "Queued")).thenReturn(written);
+
+        assertSame(written, taskService.addCommentToTask(1L, commentRequest));
+        verify(taskRepository, never()).findById(any());
+        verify(commentRepository, never()).save(any());
+    }
+
     @Test
     void testGetTaskComments() {
         Long taskId = 1L;
 
-        Task task = Task.builder().id(taskId).status("in progress").build();
+        Task task = Task.builder().id(taskId).status(TaskStatus.IN_PROGRESS).build();
 
         Comment comment1 = Comment.builder().id(1L).task(task).comment("Comment 1").build();
         Comment comment2 = Comment.builder().id(2L).task(task).comment("Comment 2").build();
@@ -251,4 +673,141 @@ public class TaskServiceTest {
 
         assertEquals(2, result.size());
     }
+
+    @Test
+    void testGetCommentsForTasksGroupsByTask() {
+        Task first = Task.builder().id(1L).build();
+        Task second = Task.builder().id(2L).build();
+        when(commentRepository.findNewestByTaskIds(Arrays.asList(1L, 2L, 3L), 10))
+                .thenReturn(
+                        Arrays.asList(
+                                Comment.builder().id(1L).task(first).comment("a").build(),
+                                Comment.builder().id(2L).task(second).comment("b").build(),
+                                Comment.builder().id(3L).task(first).comment("c").build()));
+        when(modelMapper.map(any(Comment.class), eq(CommentResponse.class)))
+                .thenAnswer(invocation -> new CommentResponse());
+
+        Map<Long, List<CommentResponse>> comments =
+                taskService.getCommentsForTasks(Arrays.asList(1L, 2L, 3L), 10);
+
+        assertEquals(2, comments.get(1L).size());
+        assertEquals(1, comments.get(2L).size());
+        assertEquals(0, comments.get(3L).size());
+        verify(commentRepository, times(1)).findNewestByTaskIds(any(), eq(10));
+    }
+
+    @Test
+    void testAddCommentSummaries() {
+        TaskResponse first = new TaskResponse();
+        first.setId(1L);
+        TaskResponse second = new TaskResponse();
+        second.setId(2L);
+        when(commentRepository.countByTaskIds(Arrays.asList(1L, 2L)))
+                .thenReturn(
+                        Collections.singletonList(
+                                new CommentCount() {
+                                    @Override
+                                    public Long getTaskId() {
+                                        return 1L;
+                                    }
+
+                                    @Override
+                                    public long getCount() {
+                                        return 4;
+                                    }
+                                }));
+        Comment latest =
+                Comment.builder().id(9L).task(Task.builder().id(1L).build()).comment("z").build();
+        when(commentRepository.findLatestByTaskIds(Arrays.asList(1L, 2L)))
+                .thenReturn(Collections.singletonList(latest));
+        CommentResponse latestResponse = new CommentResponse();
+        when(modelMapper.map(latest, CommentResponse.class)).thenReturn(latestResponse);
+
+        taskService.addCommentSummaries(Arrays.asList(first, second), true, true);
+
+        assertEquals(4L, first.getCommentCount());
+        assertEquals(0L, second.getCommentCount());
+        assertSame(latestResponse, first.getLatestComment());
+        assertNull(second.getLatestComment());
+    }
+
+    @Test
+    void testGetCommentFeedContinuesBeforeCursor() {
+        Task task = Task.builder().id(1L).build();
+        Instant createdAt = Instant.parse("2026-01-01T10:00:00Z");
+        Comment cursor =
+                Comment.builder().id(7L).task(task).comment("c").createdAt(createdAt).build();
+        when(commentRepository.findById(7L)).thenReturn(Optional.of(cursor));
+        when(commentRepository.findNewestByTaskIdBefore(
+                        1L, createdAt, 7L, TaskService.keysetPage(2)))
+                .thenReturn(
+                        Arrays.asList(
+                                Comment.builder().id(6L).task(task).build(),
+                                Comment.builder().id(5L).task(task).build()));
+        when(modelMapper.map(any(Comment.class), eq(CommentResponse.class)))
+                .thenAnswer(invocation -> new CommentResponse());
+
+        CommentFeedResponse feed = taskService.getCommentFeed(1L, 7L, 2);
+
+        assertEquals(2, feed.getComments().size());
+        assertEquals(5L, feed.getNextBefore());
+    }
+
+    @Test
+    void testGetCommentFeedRejectsUnknownOrForeignCursor() {
+        Comment foreign =
+                Comment.builder()
+                        .id(8L)
+                        .task(Task.builder().id(2L).build())
+                        .createdAt(Instant.parse("2026-01-01T10:00:00Z"))
+                        .build();
+        when(commentRepository.findById(8L)).thenReturn(Optional.of(foreign));
+        when(commentRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(InvalidCursorException.class, () -> taskService.getCommentFeed(1L, 8L, 2));
+        assertThrows(InvalidCursorException.class, () -> taskService.getCommentFeed(1L, 9L, 2));
+        verify(commentRepository, never()).findNewestByTaskIdBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetCommentFeedLastPageHasNoCursor() {
+        when(commentRepository.findNewestByTaskId(1L, TaskService.keysetPage(10)))
+                .thenReturn(
+                        Collections.singletonList(
+                                Comment.builder().id(1L).task(new Task()).build()));
+        when(modelMapper.map(any(Comment.class), eq(CommentResponse.class)))
+                .thenReturn(new CommentResponse());
+
+        CommentFeedResponse feed = taskService.getCommentFeed(1L, null, 10);
+
+        assertEquals(1, feed.getComments().size());
+        assertNull(feed.getNextBefore());
+    }
+
+    @Test
+    void testSearchTasksReturnsIndexedTasksInRankOrder() {
+        Task weak = Task.builder().id(1L).title("Fix login").description("page").build();
+        Task strong = Task.builder().id(2L).title("Fix login").description("login timeout").build();
+        Task other = Task.builder().id(3L).title("Write docs").build();
+        when(taskRepository.saveAll(any())).thenReturn(Arrays.asList(weak, strong, other));
+        when(modelMapper.map(any(TaskRequest.class), eq(Task.class))).thenReturn(new Task());
+        when(modelMapper.map(any(Task.class), eq(TaskResponse.class)))
+                .thenAnswer(
+                        invocation -> {
+                            TaskResponse response = new TaskResponse();
+                            response.setId(invocation.<Task>getArgument(0).getId());
+                            return response;
+                        });
+        taskService.createTasks(
+                Arrays.asList(new TaskRequest(), new TaskRequest(), new TaskRequest()));
+        when(taskRepository.findAllById(Arrays.asList(2L, 1L)))
+                .thenReturn(Arrays.asList(weak, strong));
+
+        TaskSearchResponse response = taskService.searchTasks("LOGIN", 0, 10);
+
+        assertEquals(2, response.getTotal());
+        assertEquals(
+                Arrays.asList(2L, 1L),
+                response.getTasks().stream().map(TaskResponse::getId).collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,204 @@
+package com.edstem.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edstem.contract.response.SnapshotResponse;
+import com.edstem.export.TaskExportWriter;
+import com.edstem.export.TaskExporter;
+import com.edstem.model.Comment;
+import com.edstem.model.Task;
+import com.edstem.model.TaskStatus;
+import com.edstem.repository.CommentRepository;
+import com.edstem.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest
+@Import(TaskExporter.class)
+public class TaskSnapshotServiceTest {
+
+    @Autowired private TaskExporter taskExporter;
+
+    @Autowired private DataSource dataSource;
+
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Autowired private TaskRepository taskRepository;
+
+    @Autowired private CommentRepository commentRepository;
+
+    @Autowired private EntityManager entityManager;
+
+    /** Magic and format version at the start of every export. */
+    private static final int HEADER_BYTES = 5;
+
+    @TempDir Path directory;
+
+    private TaskSnapshotService snapshotService(boolean memoryMap) {
+        return new TaskSnapshotService(
+                taskExporter, dataSource, transactionManager, "", false, false, memoryMap);
+    }
+
+    @Test
+    void testSnapshotRestoresIntoEmptyTables() throws IOException {
+        Task task =
+                taskRepository.save(
+                        Task.builder()
+                                .title("Title")
+                                .assigneeId(3L)
+                                .status(TaskStatus.OPEN)
+                                .build());
+        taskRepository.save(Task.builder().title("Other").build());
+        commentRepository.save(Comment.builder().task(task).comment("Note").build());
+        entityManager.flush();
+        Path file = directory.resolve("tasks.snapshot");
+
+        SnapshotResponse written = snapshotService(true).snapshot(file);
+        commentRepository.deleteAllInBatch();
+        taskRepository.deleteAllInBatch();
+        SnapshotResponse restored = snapshotService(true).restore(file);
+        entityManager.clear();
+
+        assertEquals(2, written.getTasks());
+        assertEquals(1, written.getComments());
+        assertEquals(Files.size(file), written.getBytes());
+        assertEquals(2, restored.getTasks());
+        Task reloaded = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals("Title", reloaded.getTitle());
+        assertEquals(3L, reloaded.getAssigneeId());
+        List<Comment> comments = commentRepository.findByTaskId(task.getId());
+        assertEquals("Note", comments.get(0).getComment());
+        Task created = taskRepository.save(Task.builder().title("After restore").build());
+        entityManager.flush();
+        assertTrue(created.getId() > task.getId() + 1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testSnapshotIgnoresRowsAddedWhileItIsWritten() throws Exception {
+        Task task = taskRepository.save(Task.builder().title("Before").build());
+        commentRepository.save(Comment.builder().task(task).comment("Before").build());
+        Path file = directory.resolve("tasks.snapshot");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (OutputStream fileOut = Files.newOutputStream(file)) {
+            // Commits a task and its comment from another connection when the first task record
+            // is written, after the file header, so they land between the task and comment scans.
+            AtomicInteger written = new AtomicInteger();
+            OutputStream out =
+                    new FilterOutputStream(fileOut) {
+                        @Override
+                        public void write(int b) throws IOException {
+                            if (written.getAndIncrement() == HEADER_BYTES) {
+                                addTaskWithComment(executor);
+                            }
+                            super.write(b);
+                        }
+                    };
+            taskExporter.export(out, true);
+            assertTrue(written.get() > HEADER_BYTES);
+            assertEquals(2, taskRepository.count());
+
+            commentRepository.deleteAllInBatch();
+            taskRepository.deleteAllInBatch();
+            SnapshotResponse restored = snapshotService(true).restore(file);
+
+            assertEquals(1, restored.getTasks());
+            assertEquals(1, restored.getComments());
+        } finally {
+            executor.shutdownNow();
+            commentRepository.deleteAllInBatch();
+            taskRepository.deleteAllInBatch();
+        }
+    }
+
+    private void addTaskWithComment(ExecutorService executor) throws IOException {
+        try {
+            executor.submit(
+                            () -> {
+                                Task during =
+                                        taskRepository.save(Task.builder().title("During").build());
+                                commentRepository.save(
+                                        Comment.builder().task(during).comment("During").build());
+                            })
+                    .get(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Test
+    void testRestoreMapsLegacyStatusesLikeTheMigration() throws IOException {
+        Path file = directory.resolve("legacy.snapshot");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            TaskExportWriter writer = new TaskExportWriter(out);
+            writer.writeTask(1, "Completed", null, null, "Completed", 0L);
+            writer.writeTask(2, "Underscored", null, null, "IN_PROGRESS", 0L);
+            writer.writeTask(3, "Unknown", null, null, "finished", 0L);
+            writer.writeTask(4, "Current", null, null, "blocked", 0L);
+            writer.writeTask(5, "Pending", null, null, " Pending ", 0L);
+            writer.finish();
+        }
+
+        assertEquals(5, snapshotService(true).restore(file).getTasks());
+        entityManager.clear();
+
+        assertEquals(TaskStatus.DONE, taskRepository.findById(1L).orElseThrow().getStatus());
+        assertEquals(TaskStatus.IN_PROGRESS, taskRepository.findById(2L).orElseThrow().getStatus());
+        assertNull(taskRepository.findById(3L).orElseThrow().getStatus());
+        assertEquals(TaskStatus.BLOCKED, taskRepository.findById(4L).orElseThrow().getStatus());
+        assertEquals(TaskStatus.OPEN, taskRepository.findById(5L).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testRestoreWithoutMemoryMapping() throws IOException {
+        taskRepository.save(Task.builder().title("Title").build());
+        entityManager.flush();
+        Path file = directory.resolve("tasks.snapshot");
+        snapshotService(false).snapshot(file);
+        taskRepository.deleteAllInBatch();
+
+        assertEquals(1, snapshotService(false).restore(file).getTasks());
+    }
+
+    @Test
+    void testRestoreRefusesNonEmptyTables() throws IOException {
+        taskRepository.save(Task.builder().title("Title").build());
+        entityManager.flush();
+        Path file = directory.resolve("tasks.snapshot");
+        snapshotService(true).snapshot(file);
+
+        assertThrows(IllegalStateException.class, () -> snapshotService(true).restore(file));
+    }
+
+    @Test
+    void testRestoreRefusesLeftoverCommentsWithoutTasks() throws IOException {
+        Path file = directory.resolve("tasks.snapshot");
+        snapshotService(true).snapshot(file);
+        commentRepository.save(Comment.builder().comment("Orphan").build());
+        entityManager.flush();
+
+        assertThrows(IllegalStateException.class, () -> snapshotService(true).restore(file));
+        assertEquals(1, commentRepository.count());
+    }
+}
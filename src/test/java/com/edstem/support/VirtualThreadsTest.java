@@ -0,0 +1,35 @@
+package com.edstem.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+public class VirtualThreadsTest {
+
+    @Test
+    @EnabledIf("com.edstem.support.VirtualThreads#isSupported")
+    void testExecutorRunsEachTaskOnANamedVirtualThread() throws Exception {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-vt-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get();
+
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            assertEquals("test-vt-0", thread.getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisabledIf("com.edstem.support.VirtualThreads#isSupported")
+    void testExecutorIsRejectedBeforeJava21() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> VirtualThreads.newThreadPerTaskExecutor("test-vt-"));
+    }
+}